@@ -0,0 +1,101 @@
+package br.com.alura.AluraFake.task;
+
+import br.com.alura.AluraFake.AluraFakeApplication;
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.task.domain.OpenTextTask;
+import br.com.alura.AluraFake.task.domain.SingleChoiceTask;
+import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.task.domain.TaskOption;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many tasks per second a course import can write, each operation persisting
+ * a course with {@code taskCount} tasks (half of them with options) in a single transaction.
+ * Runs against the database configured by the {@code test} profile, which must be reachable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskInsertBenchmark {
+
+    private static final String INSTRUCTOR_EMAIL = "insert-benchmark@alura.com.br";
+
+    @Param({"200"})
+    private int taskCount;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private CourseRepository courseRepository;
+    private TaskRepository taskRepository;
+    private JdbcTemplate jdbcTemplate;
+    private User instructor;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AluraFakeApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.profiles.active=test", "spring.jpa.show-sql=false")
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        courseRepository = context.getBean(CourseRepository.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        deleteBenchmarkRows();
+        jdbcTemplate.update("DELETE FROM User WHERE email = ?", INSTRUCTOR_EMAIL);
+        instructor = context.getBean(UserRepository.class).save(new User("Benchmark", INSTRUCTOR_EMAIL, Role.INSTRUCTOR));
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteBenchmarkRows() {
+        jdbcTemplate.update("DELETE c FROM Course c JOIN User u ON u.id = c.instructor_id WHERE u.email = ?", INSTRUCTOR_EMAIL);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM User WHERE email = ?", INSTRUCTOR_EMAIL);
+        context.close();
+    }
+
+    @Benchmark
+    public Course insertCourseWithTasks() {
+        return transactionTemplate.execute(status -> {
+            Course course = courseRepository.save(new Course("Benchmark", "Insert throughput", instructor));
+            List<Task> tasks = new ArrayList<>(taskCount);
+            for (int order = 1; order <= taskCount; order++) {
+                tasks.add(newTask(course, order));
+            }
+            taskRepository.saveAll(tasks);
+            return course;
+        });
+    }
+
+    private static Task newTask(Course course, int order) {
+        String statement = "Statement " + order;
+        if (order % 2 == 0) {
+            return new OpenTextTask(course, statement, order);
+        }
+
+        return new SingleChoiceTask(course, statement, order, List.of(
+                new TaskOption("Correct option", true),
+                new TaskOption("Wrong option", false),
+                new TaskOption("Another wrong option", false)
+        ));
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.alura.AluraFake.task.domain;
+
+import br.com.alura.AluraFake.course.Course;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a choice task, which validates its options and joins its course at the tail,
+ * for courses of realistic sizes and an extreme one.
+ *
+ * <p>Every iteration starts from a fresh course, built outside the measured section, and times one batch
+ * of {@value #TASKS_PER_BATCH} tasks appended one after the other, so the course grows by at most that many
+ * while it's measured. Scores are the time of the whole batch.</p>
+ *
+ * <p>The GC profiler still counts what the per-iteration setup allocates, so the allocation
+ * of a batch is its {@code gc.alloc.rate.norm} minus the one of {@link #baseline()}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 200, batchSize = ChoiceTaskConstructionBenchmark.TASKS_PER_BATCH)
+@Measurement(iterations = 50, batchSize = ChoiceTaskConstructionBenchmark.TASKS_PER_BATCH)
+@Fork(1)
+public class ChoiceTaskConstructionBenchmark {
+
+    static final int TASKS_PER_BATCH = 100;
+
+    @Param({"10", "100", "10000"})
+    private int taskCount;
+
+    private List<TaskOption> singleChoiceOptions;
+    private List<TaskOption> multipleChoiceOptions;
+    private String[] statements;
+
+    private Course course;
+    private int nextOrder;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        singleChoiceOptions = TaskBenchmarkFixtures.singleChoiceOptions();
+        multipleChoiceOptions = TaskBenchmarkFixtures.multipleChoiceOptions();
+        statements = new String[TASKS_PER_BATCH];
+        for (int index = 0; index < TASKS_PER_BATCH; index++) {
+            statements[index] = "New choice task " + index;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        course = TaskBenchmarkFixtures.courseWithTasks(taskCount);
+        nextOrder = taskCount + 1;
+    }
+
+    @Benchmark
+    public Course baseline() {
+        return course;
+    }
+
+    @Benchmark
+    public Task singleChoiceTask() {
+        int order = nextOrder++;
+        return new SingleChoiceTask(course, statements[order - taskCount - 1], order, singleChoiceOptions);
+    }
+
+    @Benchmark
+    public Task multipleChoiceTask() {
+        int order = nextOrder++;
+        return new MultipleChoiceTask(course, statements[order - taskCount - 1], order, multipleChoiceOptions);
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.alura.AluraFake.task.domain;
+
+import br.com.alura.AluraFake.course.Course;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single {@link OrderedTasks#add(Task)} at the head, middle and tail of realistic and large courses.
+ * Every invocation starts from a fresh collection, restored outside the measured section.
+ *
+ * <p>The GC profiler still counts what the per-invocation setup allocates, so the allocation
+ * of an insert is its {@code gc.alloc.rate.norm} minus the one of {@link #baseline()}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedTasksAddBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int taskCount;
+
+    @Param({"HEAD", "MIDDLE", "TAIL"})
+    private String position;
+
+    private Course course;
+    private List<Task> template;
+    private int order;
+
+    private OrderedTasks orderedTasks;
+    private Task newTask;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        course = TaskBenchmarkFixtures.detachedCourse();
+        template = new ArrayList<>(taskCount);
+        for (int index = 1; index <= taskCount; index++) {
+            template.add(TaskBenchmarkFixtures.newTask(course, "Benchmark task " + index, index));
+        }
+        order = switch (position) {
+            case "HEAD" -> 1;
+            case "MIDDLE" -> taskCount / 2;
+            default -> taskCount + 1;
+        };
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        for (int index = 0; index < template.size(); index++) {
+            Task task = template.get(index);
+            task.assignOrder(index + 1);
+            task.assignOrderKey((index + 1) * Task.ORDER_KEY_SPACING);
+        }
+        orderedTasks = new OrderedTasks(new ArrayList<>(template));
+        newTask = new OpenTextTask(course, "New benchmark task", order);
+    }
+
+    @Benchmark
+    public OrderedTasks baseline() {
+        return orderedTasks;
+    }
+
+    @Benchmark
+    public OrderedTasks add() {
+        orderedTasks.add(newTask);
+        return orderedTasks;
+    }
+}
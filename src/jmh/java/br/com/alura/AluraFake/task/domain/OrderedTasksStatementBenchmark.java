@@ -0,0 +1,44 @@
+package br.com.alura.AluraFake.task.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the statement index of {@link OrderedTasks} with the linear scan it replaced.
+ * The looked up statement is missing, which is the common case when creating a task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedTasksStatementBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int taskCount;
+
+    private List<Task> tasks;
+    private OrderedTasks orderedTasks;
+    private String statement;
+
+    @Setup
+    public void setUp() {
+        tasks = new ArrayList<>(TaskBenchmarkFixtures.courseWithTasks(taskCount).getTasks());
+        orderedTasks = new OrderedTasks(tasks);
+        statement = "Statement that is not in the course";
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        return tasks.stream().anyMatch(task -> task.matchesStatement(statement));
+    }
+
+    @Benchmark
+    public boolean statementIndex() {
+        return orderedTasks.hasTaskWithStatement(statement);
+    }
+}
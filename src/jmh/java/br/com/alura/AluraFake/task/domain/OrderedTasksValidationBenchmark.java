@@ -0,0 +1,62 @@
+package br.com.alura.AluraFake.task.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the publishing check of {@link OrderedTasks}. It's answered from state computed when the collection
+ * is built from the tasks read from the database, so its cost is paid once per loaded course:
+ * that's what {@link #load(LoadedTasks)} measures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedTasksValidationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int taskCount;
+
+    private OrderedTasks orderedTasks;
+
+    @Setup
+    public void setUp() {
+        orderedTasks = new OrderedTasks(new ArrayList<>(TaskBenchmarkFixtures.courseWithTasks(taskCount).getTasks()));
+    }
+
+    @Benchmark
+    public OrderedTasks load(LoadedTasks loadedTasks) {
+        return new OrderedTasks(new ArrayList<>(loadedTasks.tasks));
+    }
+
+    @Benchmark
+    public Boolean hasContinuousTaskSequence() {
+        return orderedTasks.hasContinuousTaskSequence();
+    }
+
+    /**
+     * Tasks as read from the database: sorted by key, without the dense order {@link OrderedTasks} derives.
+     * Loading assigns that order, so it's cleared again before every call. The per-call setup adds a timestamp
+     * pair to each measurement, small next to deriving the orders of the course.
+     */
+    @State(Scope.Thread)
+    public static class LoadedTasks {
+
+        private List<Task> tasks;
+
+        @Setup(Level.Trial)
+        public void setUp(OrderedTasksValidationBenchmark benchmark) {
+            tasks = new ArrayList<>(TaskBenchmarkFixtures.courseWithTasks(benchmark.taskCount).getTasks());
+        }
+
+        @Setup(Level.Invocation)
+        public void clearOrders() {
+            tasks.forEach(task -> task.assignOrder(null));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.alura.AluraFake.task.domain;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+
+import java.util.List;
+
+final class TaskBenchmarkFixtures {
+
+    private TaskBenchmarkFixtures() {
+    }
+
+    static Course emptyCourse() {
+        User instructor = new User("Benchmark", "benchmark@alura.com", Role.INSTRUCTOR);
+        return new Course("Benchmark", "Course used by benchmarks", instructor);
+    }
+
+    /**
+     * Course that doesn't keep the tasks created for it, so benchmarks can
+     * build tasks and hand them to an {@link OrderedTasks} of their own.
+     */
+    static Course detachedCourse() {
+        User instructor = new User("Benchmark", "benchmark@alura.com", Role.INSTRUCTOR);
+        return new Course("Benchmark", "Course used by benchmarks", instructor) {
+            @Override
+            public void addTask(Task task) {
+            }
+        };
+    }
+
+    /**
+     * Builds a course with the received number of tasks, cycling through every task type.
+     */
+    static Course courseWithTasks(int taskCount) {
+        Course course = emptyCourse();
+        for (int order = 1; order <= taskCount; order++) {
+            newTask(course, "Benchmark task " + order, order);
+        }
+        return course;
+    }
+
+    static Task newTask(Course course, String statement, int order) {
+        return switch (order % 3) {
+            case 0 -> new OpenTextTask(course, statement, order);
+            case 1 -> new SingleChoiceTask(course, statement, order, singleChoiceOptions());
+            default -> new MultipleChoiceTask(course, statement, order, multipleChoiceOptions());
+        };
+    }
+
+    static List<TaskOption> singleChoiceOptions() {
+        return List.of(
+                new TaskOption("Correct option", true),
+                new TaskOption("Wrong option", false),
+                new TaskOption("Another wrong option", false)
+        );
+    }
+
+    static List<TaskOption> multipleChoiceOptions() {
+        return List.of(
+                new TaskOption("First correct option", true),
+                new TaskOption("Second correct option", true),
+                new TaskOption("Wrong option", false)
+        );
+    }
+}
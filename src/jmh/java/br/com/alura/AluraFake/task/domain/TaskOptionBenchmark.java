@@ -0,0 +1,46 @@
+package br.com.alura.AluraFake.task.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the option checks every choice task runs on construction, with distinct options and a statement
+ * that matches none of them, so both checks go through the whole list. Tasks accept up to 5 options,
+ * larger lists show how the checks scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskOptionBenchmark {
+
+    @Param({"2", "5", "100"})
+    private int optionCount;
+
+    private List<TaskOption> options;
+    private String statement;
+
+    @Setup
+    public void setUp() {
+        options = new ArrayList<>(optionCount);
+        for (int index = 0; index < optionCount; index++) {
+            options.add(new TaskOption("Benchmark option " + index, index == 0));
+        }
+        statement = "Statement that is not an option";
+    }
+
+    @Benchmark
+    public Boolean hasDuplicateOptions() {
+        return TaskOption.hasDuplicateOptions(options);
+    }
+
+    @Benchmark
+    public Boolean containsStatement() {
+        return TaskOption.containsStatement(statement, options);
+    }
+}
@@ -1,41 +1,91 @@
 package br.com.alura.AluraFake.course;
 
+import br.com.alura.AluraFake.infra.AllocatedId;
+import br.com.alura.AluraFake.task.domain.OrderKeyShift;
 import br.com.alura.AluraFake.task.domain.OrderedTasks;
 import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.task.domain.Type;
 import br.com.alura.AluraFake.user.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.OptimisticLock;
 import org.springframework.util.Assert;
 
 import java.time.LocalDateTime;
-import java.util.SortedSet;
-import java.util.TreeSet;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Associations are lazy, so a plain {@code findById} loads only the course row.
+ * Use cases that need the tasks (publishing, task insertion and content reads) fetch them through
+ * {@link #TASKS_GRAPH}, used by {@link CourseRepository#findWithTasksById}.
+ */
 @Entity
+@NamedEntityGraph(name = Course.TASKS_GRAPH, attributeNodes = @NamedAttributeNode("tasks"))
 public class Course {
 
+    /**
+     * Course fields and every task. Options are not part of the graph, since fetching
+     * them along with the tasks would join two bags; they are batch loaded instead.
+     *
+     * @see br.com.alura.AluraFake.task.domain.TaskWithOptions#OPTIONS_BATCH_SIZE
+     */
+    public static final String TASKS_GRAPH = "Course.tasks";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AllocatedId("Course")
     private Long id;
     private LocalDateTime createdAt = LocalDateTime.now();
     private String title;
     private String description;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User instructor;
     @Enumerated(EnumType.STRING)
     private Status status;
     private LocalDateTime publishedAt;
+    /**
+     * Last change to the course row itself. Adding a task doesn't touch it, since tasks carry their own
+     * {@code createdAt}; incremental readers look at both.
+     */
+    private LocalDateTime updatedAt;
+    /**
+     * Incremented with every change to the course row and, through {@link CourseRepository#incrementVersion},
+     * with every task added to the course, so it identifies a revision of the whole course content.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Number of tasks of the course, in total and by type, so listings, reports and publishing don't count tasks.
+     * Incremented in memory as tasks are added. Not updatable through the entity, so adding a task doesn't make
+     * the course dirty: the task insertion flow claims the course version on its own and persists the counters
+     * with {@link CourseRepository#incrementTaskCounts}.
+     */
+    @Column(name = "task_count", updatable = false)
+    private int taskCount;
+    @Column(name = "open_text_task_count", updatable = false)
+    private int openTextTaskCount;
+    @Column(name = "single_choice_task_count", updatable = false)
+    private int singleChoiceTaskCount;
+    @Column(name = "multiple_choice_task_count", updatable = false)
+    private int multipleChoiceTaskCount;
 
     /**
      * Tasks list.
      * Manipulation operations in this field must be made through {@link Course#orderedTasks}
      * to ensure proper order management and sequence validation.
+     * Excluded from optimistic locking: the task insertion flow claims the course version on its own,
+     * so adding a task to the list must not make Hibernate increment it again from the stale value.
      */
-    @OneToMany(cascade = CascadeType.PERSIST, mappedBy = "course", fetch = FetchType.EAGER)
-    private SortedSet<Task> tasks;
+    @OneToMany(cascade = CascadeType.PERSIST, mappedBy = "course")
+    @OptimisticLock(excluded = true)
+    @OrderBy("orderKey")
+    private List<Task> tasks;
 
     /**
      * Wrapper for {@link Course#tasks}
      * field with order management and sequence validation.
+     * Built on first use through {@link #orderedTasks()}, so loading a course doesn't initialize its tasks.
      */
     @Transient
     private OrderedTasks orderedTasks;
@@ -49,12 +99,8 @@ public class Course {
         this.instructor = instructor;
         this.description = description;
         this.status = Status.BUILDING;
-        this.tasks = new TreeSet<>();
-        this.orderedTasks = new OrderedTasks(this.tasks);
-    }
-
-    @PostLoad
-    private void postLoad() {
+        this.updatedAt = this.createdAt;
+        this.tasks = new ArrayList<>();
         this.orderedTasks = new OrderedTasks(this.tasks);
     }
 
@@ -72,6 +118,7 @@ public class Course {
 
     public void setStatus(Status status) {
         this.status = status;
+        this.updatedAt = LocalDateTime.now();
     }
 
     public User getInstructor() {
@@ -90,6 +137,26 @@ public class Course {
         return publishedAt;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public int getTaskCount(Type type) {
+        return switch (type) {
+            case OPEN_TEXT -> openTextTaskCount;
+            case SINGLE_CHOICE -> singleChoiceTaskCount;
+            case MULTIPLE_CHOICE -> multipleChoiceTaskCount;
+        };
+    }
+
     /**
      * Publishes the course after validating business rules.
      * Requires BUILDING status, continuous task sequence, and all task types present.
@@ -100,6 +167,7 @@ public class Course {
         Assert.isTrue(this.hasAllTaskTypes(), "Course must have at least one task of each type");
         this.status = Status.PUBLISHED;
         this.publishedAt = LocalDateTime.now();
+        this.updatedAt = this.publishedAt;
     }
 
     public boolean isBuilding() {
@@ -111,11 +179,25 @@ public class Course {
     }
 
     public boolean hasTaskWithStatement(String statement) {
-        return this.orderedTasks.hasTaskWithStatement(statement);
+        return orderedTasks().hasTaskWithStatement(statement);
     }
 
     public boolean isOrderPlacementValid(Integer order) {
-        return this.orderedTasks.fitsInSequence(order);
+        return orderedTasks().fitsInSequence(order);
+    }
+
+    public boolean hasOrderKeyRoomAt(Integer order) {
+        return orderedTasks().hasRoomAt(order);
+    }
+
+    /**
+     * Opens room for a task at the received order when its neighbours have no order key left between them.
+     *
+     * @return the shift of the existing tasks, to be applied with {@code TaskRepository#shiftOrderKeys}
+     * @see OrderedTasks#reserveRoomAt(Integer)
+     */
+    public Optional<OrderKeyShift> reserveOrderKeyRoom(Integer order) {
+        return orderedTasks().reserveRoomAt(order);
     }
 
     /**
@@ -127,18 +209,38 @@ public class Course {
     public void addTask(Task task){
        Assert.isTrue(this.isBuilding(), "Course can't receive more tasks when not in BUILDING status");
        Assert.isTrue(!this.hasTaskWithStatement(task.getStatement()), "Course can't have multiple tasks with the same statement");
-       this.orderedTasks.add(task);
+       orderedTasks().add(task);
+       countTask(task.getType());
+    }
+
+    private void countTask(Type type) {
+        taskCount++;
+        switch (type) {
+            case OPEN_TEXT -> openTextTaskCount++;
+            case SINGLE_CHOICE -> singleChoiceTaskCount++;
+            case MULTIPLE_CHOICE -> multipleChoiceTaskCount++;
+        }
     }
 
     public Boolean hasContinuousTaskSequence() {
-        return this.orderedTasks.hasContinuousTaskSequence();
+        return orderedTasks().hasContinuousTaskSequence();
     }
 
+    /**
+     * Read from the task counters, so it doesn't need the tasks to be loaded.
+     */
     public Boolean hasAllTaskTypes() {
-        return this.orderedTasks.hasAllTaskTypes();
+        return openTextTaskCount > 0 && singleChoiceTaskCount > 0 && multipleChoiceTaskCount > 0;
+    }
+
+    public List<Task> getTasks() {
+        return orderedTasks().getTasks();
     }
 
-    public SortedSet<Task> getTasks() {
-        return this.orderedTasks.getTasks();
+    private OrderedTasks orderedTasks() {
+        if (this.orderedTasks == null) {
+            this.orderedTasks = new OrderedTasks(this.tasks);
+        }
+        return this.orderedTasks;
     }
 }
@@ -0,0 +1,12 @@
+package br.com.alura.AluraFake.course;
+
+/**
+ * Published when a course is created, receives tasks or is published, for the views that summarize
+ * the courses of its instructor. Listeners that invalidate those views should run after the commit.
+ */
+public record CourseChangedEvent(Long courseId, Long instructorId) {
+
+    public static CourseChangedEvent of(Course course) {
+        return new CourseChangedEvent(course.getId(), course.getInstructor().getId());
+    }
+}
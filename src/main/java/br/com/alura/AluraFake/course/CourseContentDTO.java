@@ -0,0 +1,62 @@
+package br.com.alura.AluraFake.course;
+
+import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.task.domain.TaskOption;
+import br.com.alura.AluraFake.task.domain.TaskWithOptions;
+import br.com.alura.AluraFake.task.domain.Type;
+
+import java.util.List;
+
+public record CourseContentDTO(
+        Long id,
+        String title,
+        String description,
+        Status status,
+        List<TaskDTO> tasks
+) {
+
+    public static CourseContentDTO fromModel(Course course) {
+        List<TaskDTO> taskDTOs = course.getTasks().stream()
+                .map(TaskDTO::fromModel)
+                .toList();
+
+        return new CourseContentDTO(
+                course.getId(),
+                course.getTitle(),
+                course.getDescription(),
+                course.getStatus(),
+                taskDTOs
+        );
+    }
+
+    public record TaskDTO(
+            Long id,
+            String statement,
+            Integer order,
+            Type type,
+            List<OptionDTO> options
+    ) {
+        public static TaskDTO fromModel(Task task) {
+            List<OptionDTO> options = task instanceof TaskWithOptions taskWithOptions
+                    ? taskWithOptions.getOptions().stream().map(OptionDTO::fromModel).toList()
+                    : List.of();
+
+            return new TaskDTO(
+                    task.getId(),
+                    task.getStatement(),
+                    task.getOrder(),
+                    task.getType(),
+                    options
+            );
+        }
+    }
+
+    public record OptionDTO(
+            String option,
+            Boolean isCorrect
+    ) {
+        public static OptionDTO fromModel(TaskOption option) {
+            return new OptionDTO(option.getOption(), option.getCorrect());
+        }
+    }
+}
@@ -1,26 +1,50 @@
 package br.com.alura.AluraFake.course;
 
+import br.com.alura.AluraFake.infra.JsonStreamingQuery;
 import br.com.alura.AluraFake.user.*;
 import br.com.alura.AluraFake.util.ErrorItemDTO;
+import br.com.alura.AluraFake.util.KeysetCursor;
 import br.com.alura.AluraFake.util.NotFoundItemDTO;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @RestController
 public class CourseController {
 
+    private static final String ALL_COURSES_SQL = "SELECT c.id, c.title, c.description, c.status, c.task_count AS taskCount " +
+            "FROM Course c ORDER BY c.id";
+
+    /**
+     * Published courses accept no more tasks, so clients and proxies may keep them without revalidating.
+     */
+    private static final CacheControl PUBLISHED_COURSE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final JsonStreamingQuery jsonStreamingQuery;
+    private final CourseDetailQuery courseDetailQuery;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CourseController(CourseRepository courseRepository, UserRepository userRepository){
+    public CourseController(CourseRepository courseRepository, UserRepository userRepository, JsonStreamingQuery jsonStreamingQuery,
+                            CourseDetailQuery courseDetailQuery, ApplicationEventPublisher eventPublisher){
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
+        this.jsonStreamingQuery = jsonStreamingQuery;
+        this.courseDetailQuery = courseDetailQuery;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -40,31 +64,99 @@ public class CourseController {
         Course course = new Course(newCourse.getTitle(), newCourse.getDescription(), possibleAuthor.get());
 
         courseRepository.save(course);
+        eventPublisher.publishEvent(CourseChangedEvent.of(course));
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @Transactional(readOnly = true)
     @GetMapping("/course/all")
-    public ResponseEntity<List<CourseListItemDTO>> listCourses() {
-        List<CourseListItemDTO> courses = courseRepository.findAllWithTaskCount().stream()
+    public ResponseEntity<List<CourseListItemDTO>> listCourses(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "${alurafake.pagination.default-size}") int size,
+            @RequestParam(name = "status", required = false) Status status,
+            @RequestParam(name = "instructorId", required = false) Long instructorId,
+            WebRequest request
+    ) {
+        long afterId = KeysetCursor.decode(cursor);
+        String eTag = pageETag(courseRepository.findPageVersions(afterId, status, instructorId, KeysetCursor.limitFor(size)));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+
+        List<CourseListItemDTO> courses = courseRepository
+                .findPageWithTaskCount(afterId, status, instructorId, KeysetCursor.limitFor(size)).stream()
                 .map(CourseListItemDTO::new)
                 .toList();
-        return ResponseEntity.ok(courses);
+        ResponseEntity<List<CourseListItemDTO>> page = KeysetCursor.page(courses, size, CourseListItemDTO::getId);
+        return ResponseEntity.ok()
+                .headers(page.getHeaders())
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(page.getBody());
     }
 
+    /**
+     * Every course in a single response, written while it is read from the database.
+     */
+    @GetMapping("/course/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllCourses() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingQuery.streamArray(ALL_COURSES_SQL, CourseListItemDTO::fromRow));
+    }
+
+    @Transactional(readOnly = true)
     @GetMapping("/course/{id}")
-    public ResponseEntity<?> findCourse(@PathVariable("id") Long id) {
-        Optional<Course> possibleCourse = courseRepository.findById(id);
+    public ResponseEntity<?> findCourse(@PathVariable("id") Long id, WebRequest request) {
+        Optional<CourseVersionProjection> possibleVersion = courseRepository.findVersionById(id);
+        if (possibleVersion.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new NotFoundItemDTO(Course.class));
+        }
+
+        CourseVersionProjection version = possibleVersion.get();
+        if (request.checkNotModified(version.eTag())) {
+            return notModified(version);
+        }
+
+        Optional<FindCourseDTO> possibleCourse = courseDetailQuery.findById(id);
+        if (possibleCourse.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new NotFoundItemDTO(Course.class));
+        }
+
+        return ResponseEntity.ok()
+                .eTag(version.eTag())
+                .cacheControl(cacheControlFor(version))
+                .body(possibleCourse.get());
+    }
+
+    @Transactional(readOnly = true)
+    @GetMapping("/course/{id}/content")
+    public ResponseEntity<?> findCourseContent(@PathVariable("id") Long id, WebRequest request) {
+        Optional<CourseVersionProjection> possibleVersion = courseRepository.findVersionById(id);
+        if (possibleVersion.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new NotFoundItemDTO(Course.class));
+        }
+
+        CourseVersionProjection version = possibleVersion.get();
+        if (request.checkNotModified(version.eTag())) {
+            return notModified(version);
+        }
+
+        Optional<Course> possibleCourse = courseRepository.findWithTasksById(id);
         if (possibleCourse.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new NotFoundItemDTO(Course.class));
         }
 
-        return ResponseEntity.ok(FindCourseDTO.fromModel(possibleCourse.get()));
+        return ResponseEntity.ok()
+                .eTag(version.eTag())
+                .cacheControl(cacheControlFor(version))
+                .body(CourseContentDTO.fromModel(possibleCourse.get()));
     }
 
     @Transactional
     @PostMapping("/course/{id}/publish")
     public ResponseEntity<?> publishCourse(@PathVariable("id") Long id) {
-        Optional<Course> possibleCourse = courseRepository.findById(id);
+        Optional<Course> possibleCourse = courseRepository.findWithTasksById(id);
         if (possibleCourse.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new NotFoundItemDTO(Course.class));
         }
@@ -84,8 +176,31 @@ public class CourseController {
 
         course.publish();
         courseRepository.save(course);
+        eventPublisher.publishEvent(CourseChangedEvent.of(course));
 
         return ResponseEntity.ok(new CoursePublishResponseDTO(course));
     }
 
+    private static ResponseEntity<?> notModified(CourseVersionProjection version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(version.eTag())
+                .cacheControl(cacheControlFor(version))
+                .build();
+    }
+
+    private static CacheControl cacheControlFor(CourseVersionProjection version) {
+        return version.isPublished() ? PUBLISHED_COURSE_CACHE_CONTROL : CacheControl.noCache();
+    }
+
+    /**
+     * Strong entity tag of a page, derived from the id and version of every course in it
+     * (including the one past the end, which decides the next cursor).
+     */
+    private static String pageETag(List<CourseVersionProjection> versions) {
+        String revision = versions.stream()
+                .map(version -> version.getId() + "-" + version.getVersion())
+                .collect(Collectors.joining(","));
+        return "\"" + DigestUtils.md5DigestAsHex(revision.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
 }
@@ -0,0 +1,38 @@
+package br.com.alura.AluraFake.course;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the course detail served by {@code GET /course/{id}}.
+ *
+ * <p>Published courses are cached by id: once published a course accepts no new tasks,
+ * so its detail never changes. Courses still being built are read from the database on every call
+ * and never enter the cache, so task writes don't need to invalidate anything.</p>
+ *
+ * @see br.com.alura.AluraFake.infra.CacheConfiguration
+ */
+@Component
+public class CourseDetailQuery {
+
+    public static final String PUBLISHED_COURSE_DETAIL_CACHE = "publishedCourseDetail";
+
+    private final CourseRepository courseRepository;
+
+    public CourseDetailQuery(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    @Cacheable(cacheNames = PUBLISHED_COURSE_DETAIL_CACHE, unless = "#result == null || #result.status() != T(br.com.alura.AluraFake.course.Status).PUBLISHED")
+    public Optional<FindCourseDTO> findById(Long id) {
+        List<FindCourseProjection> rows = courseRepository.findDetailById(id);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(FindCourseDTO.fromProjections(rows));
+    }
+}
@@ -1,6 +1,8 @@
 package br.com.alura.AluraFake.course;
 
 import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 public class CourseListItemDTO implements Serializable {
 
@@ -15,15 +17,34 @@ public class CourseListItemDTO implements Serializable {
         this.title = course.getTitle();
         this.description = course.getDescription();
         this.status = course.getStatus();
-        this.taskCount = (long) course.getTasks().size();
+        this.taskCount = (long) course.getTaskCount();
     }
 
     public CourseListItemDTO(CourseProjection projection) {
-        this.id = projection.getId();
-        this.title = projection.getTitle();
-        this.description = projection.getDescription();
-        this.status = projection.getStatus();
-        this.taskCount = projection.getTaskCount();
+        this(projection.getId(), projection.getTitle(), projection.getDescription(), projection.getStatus(), projection.getTaskCount());
+    }
+
+    public CourseListItemDTO(Long id, String title, String description, Status status, Long taskCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.taskCount = taskCount;
+    }
+
+    /**
+     * Maps a row with the {@code id}, {@code title}, {@code description} and {@code status} columns of {@code Course}
+     * plus a {@code taskCount} column.
+     */
+    public static CourseListItemDTO fromRow(ResultSet row, int rowNumber) throws SQLException {
+        String status = row.getString("status");
+        return new CourseListItemDTO(
+                row.getLong("id"),
+                row.getString("title"),
+                row.getString("description"),
+                status == null ? null : Status.valueOf(status),
+                row.getLong("taskCount")
+        );
     }
 
     public Long getId() {
@@ -1,21 +1,84 @@
 package br.com.alura.AluraFake.course;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CourseRepository extends JpaRepository<Course, Long>{
 
-    @Query("SELECT c.id as id, c.title as title, c.description as description, c.status as status, c.publishedAt as publishedAt, COUNT(t) as taskCount " +
-           "FROM Course c LEFT JOIN c.tasks t " +
-           "WHERE c.instructor.id = :instructorId " +
-           "GROUP BY c.id, c.title, c.description, c.status, c.publishedAt")
-    List<CourseProjection> findByInstructorIdWithTaskCount(Long instructorId);
+    @Query("SELECT c.id as id, c.title as title, c.description as description, c.status as status, c.publishedAt as publishedAt, c.taskCount as taskCount " +
+           "FROM Course c")
+    List<CourseProjection> findAllWithTaskCount();
+
+    /**
+     * Keyset page of courses after {@code afterId}, optionally filtered by status and instructor.
+     * Served by {@code IDX_Course_status_id}, {@code IDX_Course_instructor_status_id} and {@code IDX_Course_instructor_id_id}.
+     */
+    @Query("SELECT c.id as id, c.title as title, c.description as description, c.status as status, c.publishedAt as publishedAt, " +
+           "c.taskCount as taskCount " +
+           "FROM Course c " +
+           "WHERE c.id > :afterId " +
+           "AND (:status IS NULL OR c.status = :status) " +
+           "AND (:instructorId IS NULL OR c.instructor.id = :instructorId) " +
+           "ORDER BY c.id")
+    List<CourseProjection> findPageWithTaskCount(Long afterId, Status status, Long instructorId, Limit limit);
+
+    /**
+     * Loads the course with every task, for publishing, task insertion and content reads.
+     */
+    @EntityGraph(Course.TASKS_GRAPH)
+    Optional<Course> findWithTasksById(Long id);
+
+    /**
+     * Marks the course content as changed when tasks are added to it: tasks are separate rows,
+     * so inserting one doesn't update the course and its {@code @Version} would otherwise stay the same.
+     *
+     * <p>Only succeeds while the course is still at the received version. The row stays locked until the
+     * transaction ends, so a concurrent writer that read the same version waits and then updates nothing.</p>
+     *
+     * @return {@code 1} when the version was incremented, {@code 0} when the course has changed since it was read
+     */
+    @Modifying
+    @Query("UPDATE Course c SET c.version = c.version + 1 WHERE c.id = :id AND c.version = :version")
+    int incrementVersion(Long id, Long version);
 
-    @Query("SELECT c.id as id, c.title as title, c.description as description, c.status as status, c.publishedAt as publishedAt, COUNT(t) as taskCount " +
+    /**
+     * Adds the tasks inserted by the current transaction to the counters of the course,
+     * which are not updatable through the entity.
+     */
+    @Modifying
+    @Query("UPDATE Course c SET c.taskCount = c.taskCount + :openText + :singleChoice + :multipleChoice, " +
+           "c.openTextTaskCount = c.openTextTaskCount + :openText, " +
+           "c.singleChoiceTaskCount = c.singleChoiceTaskCount + :singleChoice, " +
+           "c.multipleChoiceTaskCount = c.multipleChoiceTaskCount + :multipleChoice " +
+           "WHERE c.id = :id")
+    int incrementTaskCounts(Long id, int openText, int singleChoice, int multipleChoice);
+
+    @Query("SELECT c.id as id, c.version as version, c.status as status FROM Course c WHERE c.id = :id")
+    Optional<CourseVersionProjection> findVersionById(Long id);
+
+    /**
+     * Versions of the courses {@link #findPageWithTaskCount} would return, to validate a cached page without building it.
+     */
+    @Query("SELECT c.id as id, c.version as version, c.status as status " +
+           "FROM Course c " +
+           "WHERE c.id > :afterId " +
+           "AND (:status IS NULL OR c.status = :status) " +
+           "AND (:instructorId IS NULL OR c.instructor.id = :instructorId) " +
+           "ORDER BY c.id")
+    List<CourseVersionProjection> findPageVersions(Long afterId, Status status, Long instructorId, Limit limit);
+
+    @Query("SELECT c.id as id, c.title as title, c.description as description, c.status as status, " +
+           "t.id as taskId, t.statement as statement, " +
+           "CASE TYPE(t) WHEN OpenTextTask THEN 'OPEN_TEXT' WHEN SingleChoiceTask THEN 'SINGLE_CHOICE' WHEN MultipleChoiceTask THEN 'MULTIPLE_CHOICE' END as type " +
            "FROM Course c LEFT JOIN c.tasks t " +
-           "GROUP BY c.id, c.title, c.description, c.status, c.publishedAt")
-    List<CourseProjection> findAllWithTaskCount();
+           "WHERE c.id = :id " +
+           "ORDER BY t.orderKey")
+    List<FindCourseProjection> findDetailById(Long id);
 
 }
@@ -0,0 +1,76 @@
+package br.com.alura.AluraFake.course;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Compares the task counters of every course with its actual tasks, exposed as the {@code taskcounts}
+ * actuator endpoint: the read operation lists the courses whose counters drifted and the write operation
+ * recounts them. Since it writes, it's only published on the local JMX agent, not over HTTP.
+ *
+ * <p>The counters are only written by the task insertion flow, so any drift means a task was written
+ * or removed some other way, e.g. directly in the database.</p>
+ */
+@Component
+@Endpoint(id = "taskcounts")
+public class CourseTaskCountChecker {
+
+    private static final String ACTUAL_COUNTS_SQL = "SELECT c.id AS course_id, " +
+            "c.task_count, c.open_text_task_count, c.single_choice_task_count, c.multiple_choice_task_count, " +
+            "COUNT(t.id) AS actual_task_count, " +
+            "COALESCE(SUM(t.type = 'OPEN_TEXT'), 0) AS actual_open_text_task_count, " +
+            "COALESCE(SUM(t.type = 'SINGLE_CHOICE'), 0) AS actual_single_choice_task_count, " +
+            "COALESCE(SUM(t.type = 'MULTIPLE_CHOICE'), 0) AS actual_multiple_choice_task_count " +
+            "FROM Course c LEFT JOIN Task t ON t.course_id = c.id " +
+            "GROUP BY c.id, c.task_count, c.open_text_task_count, c.single_choice_task_count, c.multiple_choice_task_count";
+
+    private static final String DRIFT_SQL = "SELECT * FROM (" + ACTUAL_COUNTS_SQL + ") counts " +
+            "WHERE task_count <> actual_task_count " +
+            "OR open_text_task_count <> actual_open_text_task_count " +
+            "OR single_choice_task_count <> actual_single_choice_task_count " +
+            "OR multiple_choice_task_count <> actual_multiple_choice_task_count " +
+            "ORDER BY course_id";
+
+    private static final String REPAIR_SQL = "UPDATE Course c JOIN (" + DRIFT_SQL + ") drift ON drift.course_id = c.id " +
+            "SET c.task_count = drift.actual_task_count, " +
+            "c.open_text_task_count = drift.actual_open_text_task_count, " +
+            "c.single_choice_task_count = drift.actual_single_choice_task_count, " +
+            "c.multiple_choice_task_count = drift.actual_multiple_choice_task_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseTaskCountChecker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @ReadOperation
+    public List<CourseTaskCountDrift> findDrift() {
+        return jdbcTemplate.query(DRIFT_SQL, (row, rowNumber) -> new CourseTaskCountDrift(
+                row.getLong("course_id"),
+                new TaskCounts(row.getInt("task_count"), row.getInt("open_text_task_count"),
+                        row.getInt("single_choice_task_count"), row.getInt("multiple_choice_task_count")),
+                new TaskCounts(row.getInt("actual_task_count"), row.getInt("actual_open_text_task_count"),
+                        row.getInt("actual_single_choice_task_count"), row.getInt("actual_multiple_choice_task_count"))));
+    }
+
+    /**
+     * Overwrites drifted counters with the actual counts.
+     *
+     * @return the number of repaired courses
+     */
+    @WriteOperation
+    public int repairDrift() {
+        return jdbcTemplate.update(REPAIR_SQL);
+    }
+
+    public record TaskCounts(int total, int openText, int singleChoice, int multipleChoice) {
+    }
+
+    public record CourseTaskCountDrift(Long courseId, TaskCounts stored, TaskCounts actual) {
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.alura.AluraFake.course;
+
+/**
+ * What conditional requests need to know about a course, read without touching its tasks.
+ */
+public interface CourseVersionProjection {
+    Long getId();
+    Long getVersion();
+    Status getStatus();
+
+    default boolean isPublished() {
+        return Status.PUBLISHED.equals(getStatus());
+    }
+
+    /**
+     * Strong entity tag of the course representations: the version changes with every change to the course
+     * row and with every task added to it.
+     */
+    default String eTag() {
+        return eTagOf(getId(), getVersion());
+    }
+
+    static String eTagOf(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
@@ -1,9 +1,10 @@
 package br.com.alura.AluraFake.course;
 
-import br.com.alura.AluraFake.task.domain.Task;
 import br.com.alura.AluraFake.task.domain.Type;
+import org.springframework.util.Assert;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 public record FindCourseDTO(
         Long id,
@@ -13,9 +14,16 @@ public record FindCourseDTO(
         List<TaskDTO> tasks
 ) {
 
-    public static FindCourseDTO fromModel(Course course) {
-        List<TaskDTO> taskDTOs = course.getTasks().stream()
-                .map(TaskDTO::fromModel)
+    /**
+     * Builds the DTO from the rows of {@link CourseRepository#findDetailById(Long)}, which come sorted by task order,
+     * so the order of each task is its position among the rows.
+     */
+    public static FindCourseDTO fromProjections(List<FindCourseProjection> rows) {
+        Assert.notEmpty(rows, "rows must not be empty");
+        FindCourseProjection course = rows.getFirst();
+        List<TaskDTO> taskDTOs = IntStream.range(0, rows.size())
+                .filter(index -> rows.get(index).getTaskId() != null)
+                .mapToObj(index -> TaskDTO.fromProjection(rows.get(index), index + 1))
                 .toList();
 
         return new FindCourseDTO(
@@ -33,12 +41,12 @@ public record FindCourseDTO(
             Integer order,
             Type type
     ) {
-        public static TaskDTO fromModel(Task task) {
+        public static TaskDTO fromProjection(FindCourseProjection row, Integer order) {
             return new TaskDTO(
-                    task.getId(),
-                    task.getStatement(),
-                    task.getOrder(),
-                    task.getType()
+                    row.getTaskId(),
+                    row.getStatement(),
+                    order,
+                    row.getType()
             );
         }
     }
@@ -0,0 +1,17 @@
+package br.com.alura.AluraFake.course;
+
+import br.com.alura.AluraFake.task.domain.Type;
+
+/**
+ * One row per task of the course, repeating the course columns.
+ * A course without tasks yields a single row whose task columns are null.
+ */
+public interface FindCourseProjection {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    Status getStatus();
+    Long getTaskId();
+    String getStatement();
+    Type getType();
+}
@@ -0,0 +1,41 @@
+package br.com.alura.AluraFake.export;
+
+import br.com.alura.AluraFake.course.CourseContentDTO;
+import br.com.alura.AluraFake.course.Status;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the catalog export: the course with its tasks and their options, in the same shape
+ * as {@link CourseContentDTO}, plus the timestamps a reader needs to sync incrementally.
+ */
+public record CatalogCourseDTO(
+        Long id,
+        String title,
+        String description,
+        Status status,
+        LocalDateTime publishedAt,
+        LocalDateTime updatedAt,
+        List<CourseContentDTO.TaskDTO> tasks
+) {
+
+    static CatalogCourseDTO fromRow(ResultSet row, List<CourseContentDTO.TaskDTO> tasks) throws SQLException {
+        return new CatalogCourseDTO(
+                row.getLong("id"),
+                row.getString("title"),
+                row.getString("description"),
+                Status.valueOf(row.getString("status")),
+                toLocalDateTime(row.getTimestamp("publishedAt")),
+                toLocalDateTime(row.getTimestamp("updatedAt")),
+                tasks
+        );
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.alura.AluraFake.export;
+
+import br.com.alura.AluraFake.util.ErrorItemDTO;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+public class CatalogExportController {
+
+    private final CatalogExporter catalogExporter;
+
+    public CatalogExportController(CatalogExporter catalogExporter) {
+        this.catalogExporter = catalogExporter;
+    }
+
+    /**
+     * Every course with its tasks and options, one JSON document per line.
+     */
+    @GetMapping("/export/catalog.ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(
+            @RequestParam(name = "updatedSince", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(catalogExporter.exportCatalog(updatedSince));
+    }
+
+    /**
+     * Raised by the stream before anything is written, so the response can still change its status and its
+     * content type, which was already set to the one of the export.
+     */
+    @ExceptionHandler(CatalogExportUnavailableException.class)
+    public ResponseEntity<ErrorItemDTO> handleCatalogExportUnavailableException(CatalogExportUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorItemDTO("export", ex.getMessage()));
+    }
+}
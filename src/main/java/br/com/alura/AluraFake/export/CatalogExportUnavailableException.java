@@ -0,0 +1,13 @@
+package br.com.alura.AluraFake.export;
+
+/**
+ * Thrown when the maximum number of catalog exports is already running.
+ *
+ * @see CatalogExporter
+ */
+public class CatalogExportUnavailableException extends RuntimeException {
+
+    public CatalogExportUnavailableException() {
+        super("Too many catalog exports running, try again later");
+    }
+}
@@ -0,0 +1,188 @@
+package br.com.alura.AluraFake.export;
+
+import br.com.alura.AluraFake.course.CourseContentDTO;
+import br.com.alura.AluraFake.infra.JsonStreamingQuery;
+import br.com.alura.AluraFake.task.domain.Type;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes the whole catalog as newline delimited JSON, one course per line with its tasks and options.
+ *
+ * <p>The catalog is read with three queries, one per table, all ordered by course id and streamed at the
+ * same time. A single merge pass walks them together and assembles one course before moving to the next,
+ * so the export takes three round trips whatever the number of courses, and only one course is held
+ * in memory at a time.</p>
+ *
+ * <p>A streamed result set keeps its connection busy until it is fully read, so each query runs on its
+ * own connection for the duration of the export. The three reads don't share a snapshot: a task whose
+ * course is not in the course stream is skipped, and a course written mid-export may miss its newest tasks,
+ * which the next incremental export picks up.</p>
+ *
+ * <p>Those connections are taken from the main pool one at a time and held for the whole stream, so exports
+ * running together could each hold part of their connections while waiting for the rest, starving each other
+ * and every other request. At most {@code alurafake.export.max-concurrent-exports} exports run at once, which
+ * must keep three connections per export below the pool size. Beyond that, exports fail with
+ * {@link CatalogExportUnavailableException} before taking any connection.</p>
+ *
+ * @see JsonStreamingQuery#prepareStreaming
+ */
+@Component
+public class CatalogExporter {
+
+    /**
+     * A course changed when its own row did or when a task was added to it. Both placeholders take the same instant.
+     */
+    private static final String UPDATED_SINCE_FILTER =
+            " WHERE c.updatedAt >= ? OR c.id IN (SELECT changed.course_id FROM Task changed WHERE changed.createdAt >= ?)";
+
+    private static final String COURSES_SQL = "SELECT c.id, c.title, c.description, c.status, c.publishedAt, c.updatedAt FROM Course c";
+    private static final String COURSES_ORDER = " ORDER BY c.id";
+
+    private static final String TASKS_SQL = "SELECT t.course_id, t.id, t.statement, t.type FROM Task t JOIN Course c ON c.id = t.course_id";
+    private static final String TASKS_ORDER = " ORDER BY t.course_id, t.task_order";
+
+    private static final String OPTIONS_SQL = "SELECT t.course_id, o.task_id, o.option_text, o.is_correct"
+            + " FROM TaskOption o JOIN Task t ON t.id = o.task_id JOIN Course c ON c.id = t.course_id";
+    private static final String OPTIONS_ORDER = " ORDER BY t.course_id, o.task_id, o.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Semaphore runningExports;
+
+    public CatalogExporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                           @Value("${alurafake.export.max-concurrent-exports}") int maxConcurrentExports) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.runningExports = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * @param updatedSince when present, only courses changed at or after this instant are exported
+     */
+    public StreamingResponseBody exportCatalog(LocalDateTime updatedSince) {
+        return outputStream -> {
+            if (!runningExports.tryAcquire()) {
+                throw new CatalogExportUnavailableException();
+            }
+
+            DataSource dataSource = jdbcTemplate.getDataSource();
+            try (Connection courseConnection = dataSource.getConnection();
+                 Connection taskConnection = dataSource.getConnection();
+                 Connection optionConnection = dataSource.getConnection();
+                 RowCursor courses = new RowCursor(courseConnection, COURSES_SQL, COURSES_ORDER, updatedSince);
+                 RowCursor tasks = new RowCursor(taskConnection, TASKS_SQL, TASKS_ORDER, updatedSince);
+                 RowCursor options = new RowCursor(optionConnection, OPTIONS_SQL, OPTIONS_ORDER, updatedSince);
+                 JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                while (courses.hasRow()) {
+                    generator.writeObject(nextCourse(courses, tasks, options));
+                    generator.writeRaw('\n');
+                }
+            } catch (SQLException ex) {
+                throw jdbcTemplate.getExceptionTranslator().translate("Catalog export", null, ex);
+            } finally {
+                runningExports.release();
+            }
+        };
+    }
+
+    private static CatalogCourseDTO nextCourse(RowCursor courses, RowCursor tasks, RowCursor options) throws SQLException {
+        long courseId = courses.row().getLong("id");
+
+        options.skipCoursesBefore(courseId);
+        Map<Long, List<CourseContentDTO.OptionDTO>> optionsByTask = new HashMap<>();
+        while (options.isAtCourse(courseId)) {
+            ResultSet row = options.row();
+            optionsByTask.computeIfAbsent(row.getLong("task_id"), taskId -> new ArrayList<>())
+                    .add(new CourseContentDTO.OptionDTO(row.getString("option_text"), row.getBoolean("is_correct")));
+            options.advance();
+        }
+
+        tasks.skipCoursesBefore(courseId);
+        List<CourseContentDTO.TaskDTO> courseTasks = new ArrayList<>();
+        while (tasks.isAtCourse(courseId)) {
+            ResultSet row = tasks.row();
+            long taskId = row.getLong("id");
+            courseTasks.add(new CourseContentDTO.TaskDTO(
+                    taskId,
+                    row.getString("statement"),
+                    courseTasks.size() + 1,
+                    Type.valueOf(row.getString("type")),
+                    optionsByTask.getOrDefault(taskId, List.of())
+            ));
+            tasks.advance();
+        }
+
+        CatalogCourseDTO course = CatalogCourseDTO.fromRow(courses.row(), courseTasks);
+        courses.advance();
+        return course;
+    }
+
+    /**
+     * A streamed query positioned on its current row, which the merge pass consumes in course id order.
+     */
+    private static final class RowCursor implements AutoCloseable {
+
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private boolean hasRow;
+
+        RowCursor(Connection connection, String sql, String orderBy, LocalDateTime updatedSince) throws SQLException {
+            this.statement = JsonStreamingQuery.prepareStreaming(connection, updatedSince == null ? sql + orderBy : sql + UPDATED_SINCE_FILTER + orderBy);
+            if (updatedSince != null) {
+                statement.setTimestamp(1, Timestamp.valueOf(updatedSince));
+                statement.setTimestamp(2, Timestamp.valueOf(updatedSince));
+            }
+            this.resultSet = statement.executeQuery();
+            advance();
+        }
+
+        boolean hasRow() {
+            return hasRow;
+        }
+
+        ResultSet row() {
+            return resultSet;
+        }
+
+        void advance() throws SQLException {
+            hasRow = resultSet.next();
+        }
+
+        boolean isAtCourse(long courseId) throws SQLException {
+            return hasRow && resultSet.getLong("course_id") == courseId;
+        }
+
+        void skipCoursesBefore(long courseId) throws SQLException {
+            while (hasRow && resultSet.getLong("course_id") < courseId) {
+                advance();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (statement) {
+                resultSet.close();
+            }
+        }
+    }
+}
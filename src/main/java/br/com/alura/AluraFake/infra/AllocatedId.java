@@ -0,0 +1,27 @@
+package br.com.alura.AluraFake.infra;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Takes the ids of an entity from its row of {@code IdAllocation}, in blocks of {@link #allocationSize()}.
+ *
+ * @see IdAllocationGenerator
+ */
+@IdGeneratorType(IdAllocationGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface AllocatedId {
+
+    /**
+     * Value of {@code entity_name} of the row.
+     */
+    String value();
+
+    int allocationSize() default 50;
+}
@@ -0,0 +1,45 @@
+package br.com.alura.AluraFake.infra;
+
+import br.com.alura.AluraFake.course.CourseDetailQuery;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportQuery;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-process caches, backed by Caffeine, whose size-bounded caches evict with W-TinyLFU:
+ * an entry is only admitted over the eviction candidate when it is used more often, so a burst
+ * of one-off reads can't push out the hot entries.
+ *
+ * <p>Every cache records statistics, which the actuator publishes as the {@code cache.gets},
+ * {@code cache.puts} and {@code cache.evictions} metrics tagged with the cache name.</p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> publishedCourseDetailCache(
+            @Value("${alurafake.cache.published-course-detail.maximum-size}") long maximumSize) {
+        return cacheManager -> cacheManager.registerCustomCache(CourseDetailQuery.PUBLISHED_COURSE_DETAIL_CACHE,
+                Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build());
+    }
+
+    /**
+     * Entries are evicted as the courses of the instructor change, the time to live only bounds how long
+     * a report read concurrently with a change, and put after its eviction, can stay stale.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> instructorCourseReportCache(
+            @Value("${alurafake.cache.instructor-course-report.maximum-size}") long maximumSize,
+            @Value("${alurafake.cache.instructor-course-report.time-to-live}") Duration timeToLive) {
+        return cacheManager -> cacheManager.registerCustomCache(InstructorCourseReportQuery.INSTRUCTOR_COURSE_REPORT_CACHE,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().build());
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.alura.AluraFake.infra;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods a bounded number of times, then lets the last failure through.
+ *
+ * <p>Between attempts it waits a random time up to an exponentially growing bound ("full jitter"),
+ * so writers that collided once don't wake up together and collide again.</p>
+ *
+ * <p>Ordered just before the transaction interceptor, so every attempt runs in a new transaction.</p>
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryAspect(@Value("${alurafake.conflict-retry.max-attempts}") int maxAttempts,
+                               @Value("${alurafake.conflict-retry.initial-backoff}") Duration initialBackoff,
+                               @Value("${alurafake.conflict-retry.max-backoff}") Duration maxBackoff) {
+        Assert.isTrue(maxAttempts >= 1, "maxAttempts must be at least 1");
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    @Around("@annotation(br.com.alura.AluraFake.infra.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw ex;
+                }
+                Thread.sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long bound = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
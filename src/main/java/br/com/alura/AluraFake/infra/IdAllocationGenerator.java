@@ -0,0 +1,110 @@
+package br.com.alura.AluraFake.infra;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids from blocks reserved in {@code IdAllocation}, so inserts don't need the generated key back
+ * and Hibernate can send them in JDBC batches.
+ *
+ * <p>A block is reserved with a single autocommitted update, which must not wait for the transaction that
+ * needs the id, so it runs on a connection of its own. Those connections come from {@link IdAllocationPool}:
+ * the callers queued on the lock of the generator already hold the connections of their transactions, and
+ * if the reservation took one from the same pool, as many callers as pooled connections would leave it
+ * waiting for a connection none of them will release. Without that pool, as in JPA test slices, it falls
+ * back to a connection of Hibernate's.</p>
+ *
+ * <p>{@code next_id} is the last id of the next block to hand out, the way Hibernate's pooled optimizer
+ * reads it, so both agree on the rows seeded by the migration.</p>
+ */
+public class IdAllocationGenerator implements IdentifierGenerator {
+
+    /**
+     * Hibernate setting with the {@link DataSource} blocks are reserved on.
+     */
+    public static final String DATA_SOURCE = "alurafake.id-allocation.data-source";
+
+    private static final String RESERVE_BLOCK_SQL = "UPDATE IdAllocation SET next_id = LAST_INSERT_ID(next_id) + ? WHERE entity_name = ?";
+    private static final String RESERVED_BLOCK_SQL = "SELECT LAST_INSERT_ID()";
+
+    private final String entityName;
+    private final int allocationSize;
+    private final DataSource dataSource;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextId = 1;
+    private long lastId = 0;
+
+    public IdAllocationGenerator(AllocatedId config, Member member, CustomIdGeneratorCreationContext context) {
+        this(config.value(), config.allocationSize(), (DataSource) context.getServiceRegistry()
+                .requireService(ConfigurationService.class).getSettings().get(DATA_SOURCE));
+    }
+
+    IdAllocationGenerator(String entityName, int allocationSize, DataSource dataSource) {
+        this.entityName = entityName;
+        this.allocationSize = allocationSize;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        lock.lock();
+        try {
+            if (nextId > lastId) {
+                lastId = reserveBlock(session);
+                nextId = lastId - allocationSize + 1;
+            }
+            return nextId++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long reserveBlock(SharedSessionContractImplementor session) {
+        try {
+            Connection connection = dataSource == null ? session.getJdbcConnectionAccess().obtainConnection() : dataSource.getConnection();
+            try {
+                return reserveBlock(connection);
+            } finally {
+                if (dataSource == null) {
+                    session.getJdbcConnectionAccess().releaseConnection(connection);
+                } else {
+                    connection.close();
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IdentifierGenerationException("Could not reserve ids for " + entityName, ex);
+        }
+    }
+
+    private long reserveBlock(Connection connection) throws SQLException {
+        try (PreparedStatement reserve = connection.prepareStatement(RESERVE_BLOCK_SQL);
+             PreparedStatement reserved = connection.prepareStatement(RESERVED_BLOCK_SQL)) {
+            reserve.setInt(1, allocationSize);
+            reserve.setString(2, entityName);
+            if (reserve.executeUpdate() == 0) {
+                throw new IdentifierGenerationException("IdAllocation has no row for " + entityName);
+            }
+
+            try (ResultSet resultSet = reserved.executeQuery()) {
+                resultSet.next();
+                long reservedId = resultSet.getLong(1);
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                return reservedId;
+            }
+        }
+    }
+}
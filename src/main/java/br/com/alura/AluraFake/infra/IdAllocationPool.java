@@ -0,0 +1,40 @@
+package br.com.alura.AluraFake.infra;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Connections {@link IdAllocationGenerator} reserves blocks of ids on, to the primary database configured by
+ * {@code spring.datasource.*} and sized by {@code alurafake.datasource.id-allocation.maximum-pool-size}.
+ *
+ * <p>Handed to Hibernate as a setting rather than declared as a {@code DataSource} bean, which would make
+ * the data source auto-configuration back off.</p>
+ */
+@Component
+public class IdAllocationPool implements HibernatePropertiesCustomizer, AutoCloseable {
+
+    private final HikariDataSource dataSource;
+
+    public IdAllocationPool(DataSourceProperties properties,
+                            @Value("${alurafake.datasource.id-allocation.maximum-pool-size}") int maximumPoolSize) {
+        this.dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("id-allocation");
+        this.dataSource.setMaximumPoolSize(maximumPoolSize);
+        this.dataSource.setMinimumIdle(0);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(IdAllocationGenerator.DATA_SOURCE, dataSource);
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.alura.AluraFake.infra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the result of a query as a JSON array while it is being read, so listings of any size are served
+ * with constant memory: each row is mapped and written to the response before the next one is fetched.
+ *
+ * <p>The statement is forward-only and read-only with a fetch size of {@link Integer#MIN_VALUE}, which makes
+ * MySQL Connector/J stream rows one by one instead of buffering the whole result set in the driver.
+ * The connection can't run other statements until the result set is fully read, so row mappers must only
+ * read the current row.</p>
+ */
+@Component
+public class JsonStreamingQuery {
+
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public JsonStreamingQuery(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> StreamingResponseBody streamArray(String sql, RowMapper<T> rowMapper) {
+        Assert.hasText(sql, "sql must not be empty");
+        Assert.notNull(rowMapper, "rowMapper must not be null");
+
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                jdbcTemplate.query(streamingStatement(sql), (ResultSet resultSet) -> {
+                    int rowNumber = 0;
+                    while (resultSet.next()) {
+                        writeRow(generator, rowMapper.mapRow(resultSet, rowNumber++));
+                    }
+                    return null;
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    private static void writeRow(JsonGenerator generator, Object row) {
+        try {
+            generator.writeObject(row);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Prepares {@code sql} so its result set is streamed row by row instead of being buffered by the driver.
+     */
+    public static PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(MYSQL_STREAMING_FETCH_SIZE);
+        return statement;
+    }
+
+    private static PreparedStatementCreator streamingStatement(String sql) {
+        return connection -> prepareStreaming(connection, sql);
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.alura.AluraFake.infra;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Serves read-only transactions from a replica, enabled by setting {@code alurafake.datasource.replica.url}.
+ *
+ * <p>The primary pool is still configured by {@code spring.datasource.*}; the replica takes the same credentials
+ * unless {@code alurafake.datasource.replica.username} and {@code password} are set, and its pool is tuned
+ * under {@code alurafake.datasource.replica.hikari.*}.</p>
+ *
+ * <p>Read endpoints run in a single read-only transaction, so every query of a request, such as a version
+ * and then the body it validates, is answered by the same source.</p>
+ *
+ * <p>Hibernate keeps its connection for the whole session by default, and the session is open for the whole
+ * request, so a request could run a write transaction on the connection of an earlier read-only one.
+ * With routing, the connection is released after each transaction instead.</p>
+ */
+@Configuration
+@ConditionalOnProperty("alurafake.datasource.replica.url")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("alurafake.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${alurafake.datasource.replica.url}") String url,
+                                              @Value("${alurafake.datasource.replica.username:#{null}}") String username,
+                                              @Value("${alurafake.datasource.replica.password:#{null}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username == null ? properties.determineUsername() : username)
+                .password(password == null ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${alurafake.datasource.replica.retry-delay}") Duration replicaRetryDelay) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaRetryDelay));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${alurafake.datasource.replica.read-your-writes-window}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.alura.AluraFake.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ *
+ * <p>The transaction manager takes its connection before the transaction is marked read-only, so this
+ * data source must sit behind a {@link LazyConnectionDataSourceProxy}, which only asks for the actual
+ * connection on the first statement.</p>
+ *
+ * <p>Read-only transactions still go to the primary when the current request is in the read-your-writes
+ * window of its client (see {@link ReadYourWritesFilter}), and while the replica is unavailable: when it
+ * can't hand out a connection, the primary serves read-only transactions for {@code replicaRetryDelay}
+ * before the replica is tried again, so a replica outage costs a single connection timeout.</p>
+ *
+ * <p>Transactions served by the replica are marked as such, see {@link #isCurrentTransactionOnReplica()}.</p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final String REPLICA_TRANSACTION_KEY = ReadWriteRoutingDataSource.class.getName() + ".replicaTransaction";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration replicaRetryDelay;
+    private final Clock clock;
+
+    private volatile Instant replicaUnavailableUntil = Instant.MIN;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicaRetryDelay) {
+        this(primary, replica, replicaRetryDelay, Clock.systemUTC());
+    }
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicaRetryDelay, Clock clock) {
+        Assert.notNull(primary, "primary must not be null");
+        Assert.notNull(replica, "replica must not be null");
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaRetryDelay = replicaRetryDelay;
+        this.clock = clock;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routesToReplica()) {
+            return primary.getConnection();
+        }
+
+        try {
+            Connection connection = replica.getConnection();
+            markCurrentTransactionOnReplica();
+            return connection;
+        } catch (SQLException ex) {
+            markReplicaUnavailable(ex);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!routesToReplica()) {
+            return primary.getConnection(username, password);
+        }
+
+        try {
+            Connection connection = replica.getConnection(username, password);
+            markCurrentTransactionOnReplica();
+            return connection;
+        } catch (SQLException ex) {
+            markReplicaUnavailable(ex);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * Whether the current transaction reads from the replica, so what it reads may lag behind the primary.
+     * Always false without a replica, or before the transaction has run its first statement.
+     */
+    public static boolean isCurrentTransactionOnReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION_KEY);
+    }
+
+    private static void markCurrentTransactionOnReplica() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isCurrentTransactionOnReplica()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(REPLICA_TRANSACTION_KEY);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION_KEY, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION_KEY);
+            }
+        });
+    }
+
+    private boolean routesToReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWritesFilter.isReadingOwnWrites()
+                && clock.instant().isAfter(replicaUnavailableUntil);
+    }
+
+    private void markReplicaUnavailable(SQLException ex) {
+        replicaUnavailableUntil = clock.instant().plus(replicaRetryDelay);
+        logger.warn("Replica unavailable, serving read-only transactions from the primary for {}", replicaRetryDelay, ex);
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.alura.AluraFake.infra;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Lets a client read its own writes while the replica catches up: every write request answers with a cookie
+ * that lives for the read-your-writes window, and requests carrying it are served from the primary
+ * by {@link ReadWriteRoutingDataSource}, even in read-only transactions. A zero window disables it.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "alurafake-read-own-writes";
+
+    private static final String READING_OWN_WRITES_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".READING_OWN_WRITES";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        Assert.isTrue(window.isZero() || window.toSeconds() >= 1, "window must be zero or at least one second, the granularity of the cookie");
+        this.window = window;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return window.isZero();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean writing = WRITE_METHODS.contains(request.getMethod());
+        if (writing || WebUtils.getCookie(request, COOKIE_NAME) != null) {
+            request.setAttribute(READING_OWN_WRITES_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        if (writing) {
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, "1")
+                    .maxAge(window)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Whether the request bound to the current thread, if any, must read from the primary.
+     */
+    static boolean isReadingOwnWrites() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(READING_OWN_WRITES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.alura.AluraFake.infra;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method again when it fails with a
+ * {@link org.springframework.dao.ConcurrencyFailureException}, such as a lost optimistic lock or a deadlock.
+ * The retry wraps the method's transaction, so each attempt starts over from fresh reads.
+ *
+ * @see ConflictRetryAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
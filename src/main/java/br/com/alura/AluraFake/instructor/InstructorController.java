@@ -1,9 +1,7 @@
 package br.com.alura.AluraFake.instructor;
 
-import br.com.alura.AluraFake.course.CourseProjection;
-import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportQuery.UserCourseReport;
 import br.com.alura.AluraFake.user.User;
-import br.com.alura.AluraFake.user.UserRepository;
 import br.com.alura.AluraFake.util.ErrorItemDTO;
 import br.com.alura.AluraFake.util.NotFoundItemDTO;
 import org.springframework.http.HttpStatus;
@@ -13,37 +11,31 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
 public class InstructorController {
 
-    private final UserRepository userRepository;
-    private final CourseRepository courseRepository;
+    private final InstructorCourseReportQuery instructorCourseReportQuery;
 
-    public InstructorController(UserRepository userRepository, CourseRepository courseRepository) {
-        this.userRepository = userRepository;
-        this.courseRepository = courseRepository;
+    public InstructorController(InstructorCourseReportQuery instructorCourseReportQuery) {
+        this.instructorCourseReportQuery = instructorCourseReportQuery;
     }
 
     @GetMapping("/instructor/{id}/courses")
     @Transactional(readOnly = true)
     public ResponseEntity getInstructorCourseReport(@PathVariable("id") Long id) {
-        Optional<User> possibleUser = userRepository.findById(id);
-        if (possibleUser.isEmpty()) {
+        Optional<UserCourseReport> possibleReport = instructorCourseReportQuery.findByUserId(id);
+        if (possibleReport.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new NotFoundItemDTO(User.class));
         }
 
-        User user = possibleUser.get();
-        if (!user.isInstructor()) {
+        UserCourseReport userReport = possibleReport.get();
+        if (!userReport.instructor()) {
             return ResponseEntity.badRequest().body(new ErrorItemDTO("user", "User is not an instructor"));
         }
 
-        List<CourseProjection> courses = courseRepository.findByInstructorIdWithTaskCount(id);
-        InstructorCourseReportResponseDTO response = InstructorCourseReportResponseDTO.fromProjections(courses);
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(userReport.report());
     }
 
 }
@@ -0,0 +1,72 @@
+package br.com.alura.AluraFake.instructor;
+
+import br.com.alura.AluraFake.course.CourseChangedEvent;
+import br.com.alura.AluraFake.user.Role;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+
+/**
+ * Reads the course report of an instructor in a single statement: the user row, to check the role,
+ * joined with one row per course, with the published courses counted by a window aggregate over those rows.
+ * Courses are only joined for instructors, so any other user comes back as a single row without course.
+ *
+ * <p>Reports of instructors are cached by id until a {@link CourseChangedEvent} of one of their courses
+ * is committed. Missing users and users that are not instructors are always read from the database, and so are
+ * reports read from a replica: one that lags could cache a report missing a change whose eviction already ran,
+ * and it would stay cached until the next change.</p>
+ *
+ * @see br.com.alura.AluraFake.infra.CacheConfiguration
+ */
+@Component
+public class InstructorCourseReportQuery {
+
+    public static final String INSTRUCTOR_COURSE_REPORT_CACHE = "instructorCourseReport";
+
+    static final String REPORT_SQL = "SELECT u.role, c.id, c.title, c.status, c.publishedAt, c.task_count, " +
+            "COUNT(CASE WHEN c.status = 'PUBLISHED' THEN 1 END) OVER () AS total_published_courses " +
+            "FROM User u " +
+            "LEFT JOIN Course c ON c.instructor_id = u.id AND u.role = 'INSTRUCTOR' " +
+            "WHERE u.id = ? " +
+            "ORDER BY c.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InstructorCourseReportQuery(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return empty when the user doesn't exist, otherwise the report, which is only present for instructors
+     */
+    @Cacheable(cacheNames = INSTRUCTOR_COURSE_REPORT_CACHE,
+            unless = "#result == null || !#result.instructor() || T(br.com.alura.AluraFake.infra.ReadWriteRoutingDataSource).isCurrentTransactionOnReplica()")
+    public Optional<UserCourseReport> findByUserId(Long userId) {
+        return jdbcTemplate.query(REPORT_SQL, rows -> {
+            if (!rows.next()) {
+                return Optional.empty();
+            }
+
+            if (!Role.INSTRUCTOR.name().equals(rows.getString("role"))) {
+                return Optional.of(new UserCourseReport(false, null));
+            }
+            return Optional.of(new UserCourseReport(true, InstructorCourseReportResponseDTO.fromRows(rows)));
+        }, userId);
+    }
+
+    /**
+     * Runs once the change is committed, so a report read right after the eviction already sees it.
+     * Changes made outside a transaction evict right away.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = INSTRUCTOR_COURSE_REPORT_CACHE, key = "#event.instructorId()")
+    public void onCourseChanged(CourseChangedEvent event) {
+    }
+
+    public record UserCourseReport(boolean instructor, InstructorCourseReportResponseDTO report) {
+    }
+}
@@ -1,9 +1,12 @@
 package br.com.alura.AluraFake.instructor;
 
-import br.com.alura.AluraFake.course.CourseProjection;
 import br.com.alura.AluraFake.course.Status;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public record InstructorCourseReportResponseDTO(
@@ -11,16 +14,22 @@ public record InstructorCourseReportResponseDTO(
         long totalPublishedCourses
 ) {
 
-    public static InstructorCourseReportResponseDTO fromProjections(List<CourseProjection> projections) {
-        List<InstructorCourseReportItemDTO> courseItems = projections.stream()
-                .map(InstructorCourseReportItemDTO::fromProjection)
-                .toList();
-
-        long publishedCount = projections.stream()
-                .filter(CourseProjection::isPublished)
-                .count();
-
-        return new InstructorCourseReportResponseDTO(courseItems, publishedCount);
+    /**
+     * Reads the current row and the remaining ones, each with the {@code id}, {@code title}, {@code status},
+     * {@code publishedAt} and {@code task_count} columns of a course, plus the {@code total_published_courses}
+     * of the instructor repeated on every row. A row with a null {@code id} stands for an instructor without courses.
+     */
+    public static InstructorCourseReportResponseDTO fromRows(ResultSet rows) throws SQLException {
+        long totalPublishedCourses = rows.getLong("total_published_courses");
+        List<InstructorCourseReportItemDTO> courseItems = new ArrayList<>();
+        do {
+            long id = rows.getLong("id");
+            if (!rows.wasNull()) {
+                courseItems.add(InstructorCourseReportItemDTO.fromRow(id, rows));
+            }
+        } while (rows.next());
+
+        return new InstructorCourseReportResponseDTO(courseItems, totalPublishedCourses);
     }
 
     public record InstructorCourseReportItemDTO(
@@ -31,14 +40,15 @@ public record InstructorCourseReportResponseDTO(
             int totalTasks
     ) {
 
-        public static InstructorCourseReportItemDTO fromProjection(CourseProjection projection) {
+        private static InstructorCourseReportItemDTO fromRow(Long id, ResultSet row) throws SQLException {
+            Timestamp publishedAt = row.getTimestamp("publishedAt");
             return new InstructorCourseReportItemDTO(
-                    projection.getId(),
-                    projection.getTitle(),
-                    projection.getStatus(),
-                    projection.getPublishedAt(),
-                    projection.getTaskCount().intValue()
+                    id,
+                    row.getString("title"),
+                    Status.valueOf(row.getString("status")),
+                    publishedAt == null ? null : publishedAt.toLocalDateTime(),
+                    row.getInt("task_count")
             );
         }
     }
-}
\ No newline at end of file
+}
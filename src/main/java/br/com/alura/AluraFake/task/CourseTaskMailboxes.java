@@ -0,0 +1,201 @@
+package br.com.alura.AluraFake.task;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Funnels task insertions through a single writer per course.
+ *
+ * <p>Concurrent insertions into the same course all claim the same course version, so handled one request
+ * per transaction they serialize on the course row and the losers fail and retry. Instead, each insertion
+ * is queued in the mailbox of its course, and one drainer per course takes whatever accumulated and applies
+ * it with {@link CourseTaskWriter#insertEach} in one transaction: the busier a course gets, the more
+ * insertions share each transaction, and callers wait for their own result.</p>
+ *
+ * <p>A course has a mailbox only while it has a drainer. Queues are only touched inside
+ * {@link ConcurrentMap#compute}, so the submission that creates a mailbox is the one that starts its drainer,
+ * and the drainer removes the mailbox when it finds it empty.</p>
+ *
+ * <p>Drainers run on threads of their own, as many as the connections of the pool
+ * ({@code alurafake.task-insertion.drainers}), since each one holds a connection while it applies a batch.
+ * Courses waiting for a drainer queue up to {@code alurafake.task-insertion.drainer-queue-capacity}, and
+ * insertions wait in their mailbox at most {@code alurafake.task-insertion.timeout}: beyond either limit the
+ * insertion is answered as unavailable and dropped. Once a drainer takes an insertion into a batch, its caller
+ * waits for the outcome of that transaction instead, so an insertion answered as unavailable was never applied
+ * and can safely be retried.</p>
+ */
+@Component
+public class CourseTaskMailboxes implements AutoCloseable {
+
+    private final ConcurrentMap<Long, Queue<PendingInsertion>> mailboxes = new ConcurrentHashMap<>();
+
+    private final CourseTaskWriter courseTaskWriter;
+
+    private final Executor executor;
+
+    private final int maxBatchSize;
+
+    private final Duration timeout;
+
+    @Autowired
+    public CourseTaskMailboxes(CourseTaskWriter courseTaskWriter,
+                               @Value("${alurafake.task-insertion.drainers}") int drainerCount,
+                               @Value("${alurafake.task-insertion.drainer-queue-capacity}") int drainerQueueCapacity,
+                               @Value("${alurafake.task-insertion.max-batch-size}") int maxBatchSize,
+                               @Value("${alurafake.task-insertion.timeout}") Duration timeout) {
+        this(courseTaskWriter, drainers(drainerCount, drainerQueueCapacity), maxBatchSize, timeout);
+    }
+
+    CourseTaskMailboxes(CourseTaskWriter courseTaskWriter, Executor executor, int maxBatchSize, Duration timeout) {
+        this.courseTaskWriter = courseTaskWriter;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+    }
+
+    private static ThreadPoolTaskExecutor drainers(int drainerCount, int drainerQueueCapacity) {
+        ThreadPoolTaskExecutor drainers = new ThreadPoolTaskExecutor();
+        drainers.setCorePoolSize(drainerCount);
+        drainers.setMaxPoolSize(drainerCount);
+        drainers.setQueueCapacity(drainerQueueCapacity);
+        drainers.setThreadNamePrefix("course-task-drainer-");
+        drainers.initialize();
+        return drainers;
+    }
+
+    /**
+     * Queues the insertion and waits for it to be applied.
+     * A failure of the transaction it was applied in is rethrown as is, so it's handled like any request failure.
+     */
+    public TaskInsertionResult insert(NewTaskDTO task, String ifMatch) {
+        try {
+            return submit(task, ifMatch).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public CompletableFuture<TaskInsertionResult> submit(NewTaskDTO task, String ifMatch) {
+        Long courseId = task.courseId();
+        PendingInsertion pending = new PendingInsertion(new TaskInsertionCommand(task, ifMatch));
+        Queue<PendingInsertion> created = new ArrayDeque<>();
+
+        Queue<PendingInsertion> mailbox = mailboxes.compute(courseId, (id, existing) -> {
+            Queue<PendingInsertion> queue = existing == null ? created : existing;
+            queue.add(pending);
+            return queue;
+        });
+
+        if (mailbox == created) {
+            startDrainer(courseId);
+        }
+        CompletableFuture.runAsync(pending::expire, CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        return pending.result();
+    }
+
+    private void startDrainer(Long courseId) {
+        try {
+            executor.execute(() -> drain(courseId));
+        } catch (RejectedExecutionException ex) {
+            Queue<PendingInsertion> abandoned = mailboxes.remove(courseId);
+            abandoned.forEach(PendingInsertion::expire);
+        }
+    }
+
+    private void drain(Long courseId) {
+        List<PendingInsertion> batch = nextBatch(courseId);
+        while (!batch.isEmpty()) {
+            apply(courseId, batch);
+            batch = nextBatch(courseId);
+        }
+    }
+
+    /**
+     * Takes up to the maximum batch size from the mailbox, skipping insertions that already expired,
+     * and removes the mailbox when there is nothing left.
+     */
+    private List<PendingInsertion> nextBatch(Long courseId) {
+        List<PendingInsertion> batch = new ArrayList<>();
+        mailboxes.computeIfPresent(courseId, (id, queue) -> {
+            while (batch.size() < maxBatchSize && !queue.isEmpty()) {
+                PendingInsertion pending = queue.poll();
+                if (pending.take()) {
+                    batch.add(pending);
+                }
+            }
+            return batch.isEmpty() ? null : queue;
+        });
+        return batch;
+    }
+
+    /**
+     * When the transaction of a batch fails, its insertions are applied again one per transaction, in the same
+     * order, so the failure only reaches the callers whose insertion fails on its own.
+     */
+    private void apply(Long courseId, List<PendingInsertion> batch) {
+        try {
+            List<TaskInsertionResult> results = courseTaskWriter.insertEach(courseId,
+                    batch.stream().map(PendingInsertion::command).toList());
+            for (int index = 0; index < batch.size(); index++) {
+                batch.get(index).result().complete(results.get(index));
+            }
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(ex);
+                return;
+            }
+            batch.stream()
+                    .filter(pending -> !pending.result().isDone())
+                    .forEach(pending -> apply(courseId, List.of(pending)));
+        } catch (Error ex) {
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor instanceof ThreadPoolTaskExecutor drainers) {
+            drainers.shutdown();
+        }
+    }
+
+    /**
+     * Either taken into a batch by its drainer or expired as unavailable, whichever comes first.
+     */
+    private record PendingInsertion(TaskInsertionCommand command, CompletableFuture<TaskInsertionResult> result,
+                                    AtomicBoolean settled) {
+
+        PendingInsertion(TaskInsertionCommand command) {
+            this(command, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        boolean take() {
+            return settled.compareAndSet(false, true);
+        }
+
+        void expire() {
+            if (settled.compareAndSet(false, true)) {
+                result.complete(TaskInsertionResult.unavailable());
+            }
+        }
+    }
+}
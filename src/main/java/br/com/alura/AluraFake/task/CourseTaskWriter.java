@@ -0,0 +1,216 @@
+package br.com.alura.AluraFake.task;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseChangedEvent;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.course.CourseVersionProjection;
+import br.com.alura.AluraFake.infra.RetryOnConflict;
+import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.task.domain.Type;
+import br.com.alura.AluraFake.util.ErrorItemDTO;
+import br.com.alura.AluraFake.util.InvalidItemsException;
+import br.com.alura.AluraFake.util.NotFoundItemDTO;
+import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ETag;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Adds tasks to a course, loading it once and writing all of them in a single transaction.
+ */
+@Component
+public class CourseTaskWriter {
+
+    private final TaskRepository taskRepository;
+
+    private final CourseRepository courseRepository;
+
+    private final CourseCanAcceptTaskValidator courseCanAcceptTaskValidator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CourseTaskWriter(TaskRepository taskRepository, CourseRepository courseRepository, CourseCanAcceptTaskValidator courseCanAcceptTaskValidator,
+                            ApplicationEventPublisher eventPublisher) {
+        this.taskRepository = taskRepository;
+        this.courseRepository = courseRepository;
+        this.courseCanAcceptTaskValidator = courseCanAcceptTaskValidator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Applies independent insertions in the received order, as if each one was a request of its own:
+     * a rejected command doesn't affect the others, and once a command is accepted the following ones
+     * see the course with its task and must send the new entity tag in {@code If-Match}.
+     *
+     * @return one result per command, in the same order
+     */
+    @RetryOnConflict
+    @Transactional
+    public List<TaskInsertionResult> insertEach(Long courseId, List<TaskInsertionCommand> commands) {
+        Optional<Course> possibleCourse = courseRepository.findWithTasksById(courseId);
+        if (possibleCourse.isEmpty()) {
+            TaskInsertionResult courseNotFound = TaskInsertionResult.rejected(new ErrorItemDTO("courseId", "Course not found"));
+            return commands.stream().map(command -> courseNotFound).toList();
+        }
+
+        Course course = possibleCourse.get();
+        List<TaskInsertionResult> results = new ArrayList<>();
+        List<Task> inserted = new ArrayList<>();
+        String currentETag = eTagOf(course);
+
+        for (TaskInsertionCommand command : commands) {
+            if (!matches(command.ifMatch(), currentETag)) {
+                results.add(TaskInsertionResult.preconditionFailed());
+                continue;
+            }
+
+            Optional<ErrorItemDTO> error = courseCanAcceptTaskValidator.validate(course, command.task().statement(), command.task().order());
+            if (error.isPresent()) {
+                results.add(TaskInsertionResult.rejected(error.get()));
+                continue;
+            }
+
+            if (inserted.isEmpty()) {
+                claimNextVersion(course);
+                currentETag = nextETagOf(course);
+            }
+            reserveOrderKeyRoom(course, command.task().order());
+            Task task = command.task().toModel(course);
+            taskRepository.save(task);
+            inserted.add(task);
+            results.add(TaskInsertionResult.inserted(currentETag));
+        }
+
+        if (!inserted.isEmpty()) {
+            incrementTaskCounts(course, inserted);
+            eventPublisher.publishEvent(CourseChangedEvent.of(course));
+        }
+        return results;
+    }
+
+    /**
+     * Imports several tasks of any type into a course at once. Items are checked in the received order
+     * against the course as it grows, with the same rules as the single task insertions, and every rejected
+     * field is reported with its item index. Nothing is persisted unless the whole batch is valid:
+     * tasks are saved as they are built, and the transaction rolls back with the reported errors.
+     */
+    @RetryOnConflict
+    @Transactional
+    public TaskInsertionResult insertAll(Long courseId, List<NewTaskDTO> taskDTOs, String ifMatch) {
+        Optional<Course> possibleCourse = courseRepository.findWithTasksById(courseId);
+        if (possibleCourse.isEmpty()) {
+            return TaskInsertionResult.notFound(new NotFoundItemDTO(Course.class));
+        }
+
+        Course course = possibleCourse.get();
+        if (!matches(ifMatch, eTagOf(course))) {
+            return TaskInsertionResult.preconditionFailed();
+        }
+
+        claimNextVersion(course);
+        List<ErrorItemDTO> errors = new ArrayList<>();
+        List<Task> inserted = new ArrayList<>();
+
+        for (int index = 0; index < taskDTOs.size(); index++) {
+            NewTaskDTO taskDTO = taskDTOs.get(index);
+            Optional<ErrorItemDTO> error = validateBatchItem(course, taskDTO);
+            if (error.isPresent()) {
+                errors.add(new ErrorItemDTO(format("tasks[%d].%s", index, error.get().getField()), error.get().getMessage()));
+                continue;
+            }
+
+            reserveOrderKeyRoom(course, taskDTO.order());
+            Task task = taskDTO.toModel(course);
+            if (errors.isEmpty()) {
+                taskRepository.save(task);
+                inserted.add(task);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidItemsException(errors);
+        }
+
+        incrementTaskCounts(course, inserted);
+        eventPublisher.publishEvent(CourseChangedEvent.of(course));
+        return TaskInsertionResult.inserted(nextETagOf(course));
+    }
+
+    private Optional<ErrorItemDTO> validateBatchItem(Course course, NewTaskDTO taskDTO) {
+        if (!course.getId().equals(taskDTO.courseId())) {
+            return Optional.of(new ErrorItemDTO("courseId", "Task must belong to the course of the batch"));
+        }
+
+        return taskDTO.validateOptions()
+                .or(() -> courseCanAcceptTaskValidator.validate(course, taskDTO.statement(), taskDTO.order()));
+    }
+
+    /**
+     * Strong comparison, as required for {@code If-Match}: weak tags never match, {@code *} always does.
+     */
+    private static boolean matches(String ifMatch, String currentETag) {
+        if (ifMatch == null) {
+            return true;
+        }
+
+        return ETag.parse(ifMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || (!tag.weak() && tag.formattedTag().equals(currentETag)));
+    }
+
+    /**
+     * Takes the next version of the course before writing any task, so two transactions that validated
+     * against the same course can't both insert: the second one waits for the first to commit, updates
+     * nothing and fails with a conflict, which {@link RetryOnConflict} turns into a fresh attempt.
+     */
+    private void claimNextVersion(Course course) {
+        if (courseRepository.incrementVersion(course.getId(), course.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Course.class, course.getId());
+        }
+    }
+
+    private void incrementTaskCounts(Course course, List<Task> tasks) {
+        Map<Type, Long> countByType = tasks.stream()
+                .collect(Collectors.groupingBy(Task::getType, () -> new EnumMap<>(Type.class), Collectors.counting()));
+        courseRepository.incrementTaskCounts(course.getId(),
+                countByType.getOrDefault(Type.OPEN_TEXT, 0L).intValue(),
+                countByType.getOrDefault(Type.SINGLE_CHOICE, 0L).intValue(),
+                countByType.getOrDefault(Type.MULTIPLE_CHOICE, 0L).intValue());
+    }
+
+    private static String eTagOf(Course course) {
+        return CourseVersionProjection.eTagOf(course.getId(), course.getVersion());
+    }
+
+    /**
+     * Entity tag of the course once the current transaction commits, for clients chaining {@code If-Match} writes.
+     */
+    private static String nextETagOf(Course course) {
+        return CourseVersionProjection.eTagOf(course.getId(), course.getVersion() + 1);
+    }
+
+    /**
+     * Pending tasks of the current transaction are flushed before the bulk shift, otherwise they would be
+     * inserted with keys that were already shifted in memory and then shifted again by the update.
+     * That's why tasks are saved as soon as they are built: by the time of a later save, a flush
+     * may have already persisted them through the course, and saving them again would merge them.
+     */
+    private void reserveOrderKeyRoom(Course course, Integer order) {
+        if (course.hasOrderKeyRoomAt(order)) {
+            return;
+        }
+
+        taskRepository.flush();
+        course.reserveOrderKeyRoom(order)
+                .ifPresent(shift -> taskRepository.shiftOrderKeys(course.getId(), shift.fromKey(), shift.offset()));
+    }
+}
@@ -1,14 +1,17 @@
 package br.com.alura.AluraFake.task;
 
 import br.com.alura.AluraFake.course.Course;
-import br.com.alura.AluraFake.course.CourseRepository;
 import br.com.alura.AluraFake.task.domain.MultipleChoiceTask;
 import br.com.alura.AluraFake.task.domain.TaskOption;
+import br.com.alura.AluraFake.util.ErrorItemDTO;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 import java.util.List;
+import java.util.Optional;
+
+import static java.lang.String.format;
 
 public record NewMultipleChoiceTaskDTO(
         @NotNull
@@ -23,23 +26,15 @@ public record NewMultipleChoiceTaskDTO(
         Integer order,
 
         @NotNull
+        @Size(min = 3, max = 5)
         List<TaskOptionDTO> options
-) {
-
-    public MultipleChoiceTask toModel(
-            CourseRepository courseRepository
-    ) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
-
-        List<TaskOption> taskOptions = options.stream()
-                .map(TaskOptionDTO::toModel)
-                .toList();
+) implements NewTaskDTO {
 
-        return new MultipleChoiceTask(course, statement, order, taskOptions);
+    @Override
+    public MultipleChoiceTask toModel(Course course) {
+        return new MultipleChoiceTask(course, statement, order, optionsToModel());
     }
 
-
     public Boolean hasRequiredOptionCounts() {
         long correct = options.stream().filter(TaskOptionDTO::isCorrect).count();
         long wrong = options.size() - correct;
@@ -47,6 +42,31 @@ public record NewMultipleChoiceTaskDTO(
         return wrong >= MultipleChoiceTask.MIN_WRONG_OPTIONS_SIZE && correct >= MultipleChoiceTask.MIN_CORRECT_OPTIONS_SIZE;
     }
 
+    @Override
+    public Optional<ErrorItemDTO> validateOptions() {
+        if (!hasRequiredOptionCounts()) {
+            String message = format("Task must include at least %d correct option(s) and %d incorrect option(s).", MultipleChoiceTask.MIN_CORRECT_OPTIONS_SIZE, MultipleChoiceTask.MIN_WRONG_OPTIONS_SIZE);
+            return Optional.of(new ErrorItemDTO("options", message));
+        }
+
+        List<TaskOption> taskOptions = optionsToModel();
+        if (TaskOption.hasDuplicateOptions(taskOptions)) {
+            return Optional.of(new ErrorItemDTO("options", "Received options has duplicated values"));
+        }
+
+        if (TaskOption.containsStatement(statement, taskOptions)) {
+            return Optional.of(new ErrorItemDTO("options", "One of the received options is equal to the task statement"));
+        }
+
+        return Optional.empty();
+    }
+
+    private List<TaskOption> optionsToModel() {
+        return options.stream()
+                .map(TaskOptionDTO::toModel)
+                .toList();
+    }
+
     public record TaskOptionDTO(
             @NotNull
             @Size(min = 4, max = 80)
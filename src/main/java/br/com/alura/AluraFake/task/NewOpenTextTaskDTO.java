@@ -1,7 +1,6 @@
 package br.com.alura.AluraFake.task;
 
 import br.com.alura.AluraFake.course.Course;
-import br.com.alura.AluraFake.course.CourseRepository;
 import br.com.alura.AluraFake.task.domain.OpenTextTask;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -17,13 +16,10 @@ public record NewOpenTextTaskDTO(
         @NotNull
         @Min(1)
         Integer order
-) {
+) implements NewTaskDTO {
 
-    public OpenTextTask toModel(
-            CourseRepository courseRepository
-    ) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+    @Override
+    public OpenTextTask toModel(Course course) {
         return new OpenTextTask(course, statement, order);
     }
 
@@ -1,14 +1,17 @@
 package br.com.alura.AluraFake.task;
 
 import br.com.alura.AluraFake.course.Course;
-import br.com.alura.AluraFake.course.CourseRepository;
 import br.com.alura.AluraFake.task.domain.SingleChoiceTask;
 import br.com.alura.AluraFake.task.domain.TaskOption;
+import br.com.alura.AluraFake.util.ErrorItemDTO;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 import java.util.List;
+import java.util.Optional;
+
+import static java.lang.String.format;
 
 public record NewSingleChoiceTaskDTO(
         @NotNull
@@ -25,19 +28,11 @@ public record NewSingleChoiceTaskDTO(
         @NotNull
         @Size(min = 2, max = 5)
         List<TaskOptionDTO> options
-) {
-
-    public SingleChoiceTask toModel(
-            CourseRepository courseRepository
-    ) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+) implements NewTaskDTO {
 
-        List<TaskOption> taskOptions = options.stream()
-                .map(TaskOptionDTO::toModel)
-                .toList();
-
-        return new SingleChoiceTask(course, statement, order, taskOptions);
+    @Override
+    public SingleChoiceTask toModel(Course course) {
+        return new SingleChoiceTask(course, statement, order, optionsToModel());
     }
 
     public Boolean hasRequiredCorrectOptionCounts() {
@@ -45,6 +40,30 @@ public record NewSingleChoiceTaskDTO(
         return correctCount == 1;
     }
 
+    @Override
+    public Optional<ErrorItemDTO> validateOptions() {
+        if (!hasRequiredCorrectOptionCounts()) {
+            return Optional.of(new ErrorItemDTO("options", format("Task must have %d correct option.", SingleChoiceTask.REQUIRED_CORRECT_OPTIONS_SIZE)));
+        }
+
+        List<TaskOption> taskOptions = optionsToModel();
+        if (TaskOption.hasDuplicateOptions(taskOptions)) {
+            return Optional.of(new ErrorItemDTO("options", "Received options has duplicated values"));
+        }
+
+        if (TaskOption.containsStatement(statement, taskOptions)) {
+            return Optional.of(new ErrorItemDTO("options", "One of the received options is equal to the task statement"));
+        }
+
+        return Optional.empty();
+    }
+
+    private List<TaskOption> optionsToModel() {
+        return options.stream()
+                .map(TaskOptionDTO::toModel)
+                .toList();
+    }
+
     public record TaskOptionDTO(
             @NotNull
             @Size(min = 4, max = 80)
@@ -0,0 +1,23 @@
+package br.com.alura.AluraFake.task;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record NewTaskBatchDTO(
+        @NotNull
+        @Size(min = 1, max = 1000)
+        @Valid
+        @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+        @JsonSubTypes({
+                @JsonSubTypes.Type(value = NewOpenTextTaskDTO.class, name = "OPEN_TEXT"),
+                @JsonSubTypes.Type(value = NewSingleChoiceTaskDTO.class, name = "SINGLE_CHOICE"),
+                @JsonSubTypes.Type(value = NewMultipleChoiceTaskDTO.class, name = "MULTIPLE_CHOICE")
+        })
+        List<NewTaskDTO> tasks
+) {
+}
@@ -0,0 +1,32 @@
+package br.com.alura.AluraFake.task;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.util.ErrorItemDTO;
+
+import java.util.Optional;
+
+/**
+ * Common shape of the task creation payloads, used where the three task types are handled together.
+ */
+public sealed interface NewTaskDTO permits NewOpenTextTaskDTO, NewSingleChoiceTaskDTO, NewMultipleChoiceTaskDTO {
+
+    Long courseId();
+
+    String statement();
+
+    Integer order();
+
+    /**
+     * Builds the task and adds it to the received course.
+     */
+    Task toModel(Course course);
+
+    /**
+     * Checks the option rules of the task type before building it,
+     * so they can be reported as a field error instead of failing the domain assertions.
+     */
+    default Optional<ErrorItemDTO> validateOptions() {
+        return Optional.empty();
+    }
+}
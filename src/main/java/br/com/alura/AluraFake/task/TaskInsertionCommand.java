@@ -0,0 +1,7 @@
+package br.com.alura.AluraFake.task;
+
+/**
+ * A task to add to its course, with the {@code If-Match} header the client sent along, if any.
+ */
+public record TaskInsertionCommand(NewTaskDTO task, String ifMatch) {
+}
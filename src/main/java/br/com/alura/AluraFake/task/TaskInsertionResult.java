@@ -0,0 +1,44 @@
+package br.com.alura.AluraFake.task;
+
+import br.com.alura.AluraFake.util.ErrorItemDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Outcome of a task insertion, answered to the client as is.
+ *
+ * @param body  error payload of a rejected insertion, {@code null} otherwise
+ * @param eTag  entity tag of the course after a successful insertion, {@code null} otherwise
+ */
+public record TaskInsertionResult(HttpStatus status, Object body, String eTag) {
+
+    static TaskInsertionResult inserted(String eTag) {
+        return new TaskInsertionResult(HttpStatus.OK, null, eTag);
+    }
+
+    static TaskInsertionResult rejected(ErrorItemDTO error) {
+        return new TaskInsertionResult(HttpStatus.BAD_REQUEST, error, null);
+    }
+
+    static TaskInsertionResult notFound(Object body) {
+        return new TaskInsertionResult(HttpStatus.NOT_FOUND, body, null);
+    }
+
+    static TaskInsertionResult preconditionFailed() {
+        return new TaskInsertionResult(HttpStatus.PRECONDITION_FAILED,
+                new ErrorItemDTO("If-Match", "Course has changed since it was read"), null);
+    }
+
+    static TaskInsertionResult unavailable() {
+        return new TaskInsertionResult(HttpStatus.SERVICE_UNAVAILABLE,
+                new ErrorItemDTO("course", "Course is receiving too many tasks at once, try again"), null);
+    }
+
+    public ResponseEntity<?> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return body == null ? response.build() : response.body(body);
+    }
+}
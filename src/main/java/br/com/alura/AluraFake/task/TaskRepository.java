@@ -2,8 +2,17 @@ package br.com.alura.AluraFake.task;
 
 import br.com.alura.AluraFake.task.domain.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    /**
+     * Shifts every order key of the course at or after the received one in a single statement,
+     * mirroring {@link br.com.alura.AluraFake.course.Course#reserveOrderKeyRoom(Integer)}.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.orderKey = t.orderKey + :offset WHERE t.course.id = :courseId AND t.orderKey >= :fromKey")
+    int shiftOrderKeys(Long courseId, Long fromKey, Long offset);
 
 }
@@ -0,0 +1,9 @@
+package br.com.alura.AluraFake.task.domain;
+
+/**
+ * Room opened in the order keys of a course: every key at or after {@code fromKey} moves up by {@code offset}.
+ *
+ * @see OrderedTasks#reserveRoomAt(Integer)
+ */
+public record OrderKeyShift(Long fromKey, Long offset) {
+}
@@ -13,25 +13,58 @@ import java.util.*;
  * When a new task is inserted at an existing order position, existing tasks are automatically
  * shifted to higher orders to maintain the sequence.</p>
  *
+ * <p>Tasks are kept in a positional list where the index is {@code order - 1}, so a task is looked up
+ * by order in constant time and an insertion is a single array copy.</p>
+ *
+ * <p>Only the sparse {@link Task#getOrderKey() order key} is persisted. A new task receives a key
+ * between its neighbours, so shifting only changes the transient dense order of the following
+ * tasks and a typical insert writes a single row. When two neighbours have no key left between
+ * them, room is opened by shifting the keys from the insertion point onwards, see
+ * {@link #reserveRoomAt(Integer)}.</p>
+ *
+ * <p>The room opened grows with the number of shifted tasks, and a task placed in a wide gap takes the key
+ * right below its next neighbour, leaving the rest of the gap to the following inserts at the same order.
+ * Repeated inserts at the same order, such as at the head, thus shift about one row per insert on average.
+ * Runs inserted one after the other in ascending order still halve the room after the first task of the run.</p>
+ *
  * <p>Key constraints enforced:</p>
  * <ul>
  *   <li>Tasks must have orders in continuous sequence (no gaps)</li>
  *   <li>New task order cannot exceed collection size + 1</li>
  *   <li>Automatic order shifting when inserting at existing positions</li>
- *   <li>Validation for course publishing requirements (all task types present)</li>
  * </ul>
  *
  * @see Task
  */
 public class OrderedTasks {
 
-    private final SortedSet<Task> tasks;
+    private final List<Task> tasks;
+
+    /**
+     * Index of {@link #tasks} by statement, kept in sync by {@link #add(Task)}
+     * so duplicate statement checks don't need to scan the whole collection.
+     */
+    private final Map<String, Task> tasksByStatement = new HashMap<>();
+
+    /**
+     * Whether the received tasks formed a continuous sequence.
+     * Computed once, since {@link #add(Task)} only accepts tasks that keep the sequence continuous.
+     */
+    private final Boolean continuousSequence;
 
     final Integer MAX_GAP_BETWEEN_TASK_ORDER = 1;
 
-    public OrderedTasks(SortedSet<Task> tasks) {
+    /**
+     * @param tasks the tasks of a course, usually already sorted by order key as loaded from the database.
+     *              They are sorted in place only when that's not the case.
+     */
+    public OrderedTasks(List<Task> tasks) {
         Assert.notNull(tasks, "Received tasks must not be null");
         this.tasks = tasks;
+        sortByOrderKeyIfNeeded();
+        assignOrdersFromKeys();
+        tasks.forEach(this::index);
+        this.continuousSequence = computeContinuousTaskSequence();
     }
 
     /**
@@ -45,10 +78,61 @@ public class OrderedTasks {
     public void add(Task task) {
         Assert.isTrue(isOrderWithinBounds(task), "Task order value is higher than list size");
         Assert.isTrue(fitsInSequence(task), "Task has an order with an invalid gap between existing tasks");
-        if (isOrderInUse(task.getOrder())) {
-            shiftTasksWithOrderHigherOrEqualTo(task.getOrder());
+        int position = task.getOrder() - 1;
+        Task previous = findByOrder(task.getOrder() - 1);
+        Task next = findByOrder(task.getOrder());
+        if (next != null && !Task.hasRoomBetween(previous, next)) {
+            Assert.state(tasksFrom(position).stream().noneMatch(Task::isPersisted), "Room for persisted tasks must be reserved before adding a task");
+            shiftOrderKeysFrom(position);
         }
-        tasks.add(task);
+        task.placeBetween(previous, next);
+        shiftTasksFrom(position);
+        tasks.add(position, task);
+        index(task);
+    }
+
+    private void index(Task task) {
+        tasksByStatement.put(task.getStatement(), task);
+    }
+
+    /**
+     * Makes sure a task can be placed at the received order without changing the key of its neighbours.
+     * When there is no key left between them, every key from the insertion point onwards is shifted by
+     * {@link Task#ORDER_KEY_SPACING} per shifted task. The same shift must be applied to the database with a single
+     * {@code TaskRepository#shiftOrderKeys} statement, since order keys are not updatable through the entity.
+     *
+     * @param order the order the new task will be placed at
+     * @return the shift applied, or empty if there was already room
+     */
+    public Optional<OrderKeyShift> reserveRoomAt(@NotNull Integer order) {
+        Assert.isTrue(hasContinuousTaskSequence(), "Tasks are not in a continuous sequence");
+        if (hasRoomAt(order)) {
+            return Optional.empty();
+        }
+
+        Long fromKey = findByOrder(order).getOrderKey();
+        return Optional.of(new OrderKeyShift(fromKey, shiftOrderKeysFrom(order - 1)));
+    }
+
+    /**
+     * Tells whether a task can be placed at the received order without shifting the key of any other task.
+     */
+    public boolean hasRoomAt(@NotNull Integer order) {
+        Task next = findByOrder(order);
+        return next == null || Task.hasRoomBetween(findByOrder(order - 1), next);
+    }
+
+    /**
+     * Moves the key of every task at or after the received position by {@link Task#ORDER_KEY_SPACING}
+     * per moved task, so the more a shift costs, the more inserts fit in the room it opens.
+     *
+     * @return the offset applied to each key
+     */
+    private Long shiftOrderKeysFrom(int position) {
+        List<Task> shifted = tasksFrom(position);
+        Long offset = Task.ORDER_KEY_SPACING * shifted.size();
+        shifted.forEach(task -> task.shiftOrderKey(offset));
+        return offset;
     }
 
     /**
@@ -79,33 +163,63 @@ public class OrderedTasks {
             return order == 1;
         }
 
-        Integer lastOrder = tasks.last().getOrder();
+        Integer lastOrder = tasks.getLast().getOrder();
         return order >= 1 && order - lastOrder <= MAX_GAP_BETWEEN_TASK_ORDER;
     }
 
     public Boolean hasTaskWithStatement(String statement) {
-        return this.tasks.stream().anyMatch(currentTask -> currentTask.matchesStatement(statement));
+        return this.tasksByStatement.containsKey(statement);
     }
 
-    private void shiftTasksWithOrderHigherOrEqualTo(Integer order) {
-        List<Task> tasksToShift = tasks.stream()
-                .filter(task -> task.getOrder() >= order)
-                .toList();
+    /**
+     * Shifts the dense order of the tasks at or after the received position.
+     * Order keys are untouched, so the persisted rows don't change.
+     */
+    private void shiftTasksFrom(int position) {
+        tasksFrom(position).forEach(Task::incrementOrder);
+    }
 
-        tasksToShift.forEach(task -> {
-            tasks.remove(task);
-            task.incrementOrder();
-        });
+    private List<Task> tasksFrom(int position) {
+        return tasks.subList(position, tasks.size());
+    }
 
-        tasks.addAll(tasksToShift);
+    private void sortByOrderKeyIfNeeded() {
+        for (int index = 1; index < tasks.size(); index++) {
+            if (tasks.get(index - 1).compareTo(tasks.get(index)) > 0) {
+                tasks.sort(null);
+                return;
+            }
+        }
+    }
+
+    private void assignOrdersFromKeys() {
+        int order = 1;
+        for (Task task : tasks) {
+            if (task.getOrder() == null) {
+                task.assignOrder(order);
+            }
+            order++;
+        }
     }
 
-    public SortedSet<Task> getTasks() {
-        return tasks;
+    /**
+     * Looks up a task by its position, which is only meaningful for a continuous sequence.
+     *
+     * @return the task at the received order, or null if it's out of the list
+     */
+    private Task findByOrder(Integer order) {
+        if (order < 1 || order > tasks.size()) {
+            return null;
+        }
+        return tasks.get(order - 1);
     }
 
-    private Boolean isOrderInUse(Integer order) {
-        return tasks.stream().anyMatch(existingTask -> Objects.equals(existingTask.getOrder(), order));
+    /**
+     * Read-only view of the tasks, so every mutation goes through {@link #add(Task)}
+     * and keeps the indexes of this class in sync.
+     */
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks);
     }
 
     /**
@@ -114,31 +228,18 @@ public class OrderedTasks {
      * @return true if tasks form a continuous sequence (1,2,3,...)
      */
     public Boolean hasContinuousTaskSequence() {
-        if (tasks.isEmpty()) return true;
-        if (tasks.first().getOrder() != 1) return false;
-        if (tasks.size() == 1) return true;
-
-        List<Task> sortedTasks = tasks.stream().sorted().toList();
-        for (int index = 1; index < sortedTasks.size(); index++) {
-            Task previousTask = sortedTasks.get(index - 1);
-            if (!Objects.equals(sortedTasks.get(index).getOrderGap(previousTask), MAX_GAP_BETWEEN_TASK_ORDER)) {
+        return continuousSequence;
+    }
+
+    private Boolean computeContinuousTaskSequence() {
+        Task previousTask = null;
+        for (Task task : tasks) {
+            if (previousTask == null && task.getOrder() != 1) return false;
+            if (previousTask != null && !Objects.equals(task.getOrderGap(previousTask), MAX_GAP_BETWEEN_TASK_ORDER)) {
                 return false;
             }
+            previousTask = task;
         }
         return true;
     }
-
-    /**
-     * Validates that the collection contains at least one task of each required type.
-     *
-     * @return true if all task types are present
-     * @see Type
-     */
-    public Boolean hasAllTaskTypes() {
-        Set<Type> requiredTypes = Set.of(Type.values());
-        Set<Type> existingTypes = tasks.stream()
-                .map(Task::getType)
-                .collect(java.util.stream.Collectors.toSet());
-        return existingTypes.containsAll(requiredTypes);
-    }
 }
\ No newline at end of file
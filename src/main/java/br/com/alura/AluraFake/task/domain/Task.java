@@ -1,12 +1,14 @@
 package br.com.alura.AluraFake.task.domain;
 
 import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.infra.AllocatedId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.util.Assert;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 /**
@@ -16,6 +18,11 @@ import java.util.Objects;
  * for statement uniqueness and order management. Subclasses implement specific
  * task types (OPEN_TEXT, SINGLE_CHOICE, MULTIPLE_CHOICE).</p>
  *
+ * <p>The persisted {@code task_order} column holds a sparse {@link #orderKey}, leaving gaps
+ * between neighbours so a task can be placed between two others without rewriting them.
+ * The dense 1..N {@link #order} exposed by the API is derived from the key ranking by
+ * {@link OrderedTasks} and is never stored.</p>
+ *
  * @see OrderedTasks
  * @see Type
  */
@@ -24,8 +31,10 @@ import java.util.Objects;
 @DiscriminatorColumn(name = "type", discriminatorType = DiscriminatorType.STRING)
 public abstract class Task implements Comparable<Task> {
 
+    public static final Long ORDER_KEY_SPACING = 65_536L;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AllocatedId("Task")
     private Long id;
 
 
@@ -33,14 +42,28 @@ public abstract class Task implements Comparable<Task> {
     @Size(min = 4, max = 255)
     private String statement;
 
+    /**
+     * Sparse position of the task inside its course.
+     * Not updatable through the entity: keys of persisted tasks only move through
+     * {@code TaskRepository#shiftOrderKeys}, so opening room never costs one UPDATE per task.
+     */
+    @Column(name = "task_order", updatable = false)
+    private Long orderKey;
+
     @NotNull
-    @Column(name = "task_order")
+    @Transient
     private Integer order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(columnDefinition = "course_id", referencedColumnName = "id")
     private Course course;
 
+    /**
+     * Tasks are never edited once added, so this is also the last time the task changed.
+     */
+    @Column(updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
     @Deprecated
     public Task() {
     }
@@ -55,6 +78,7 @@ public abstract class Task implements Comparable<Task> {
         this.course = course;
         this.statement = statement;
         this.order = order;
+        this.orderKey = order * ORDER_KEY_SPACING;
         this.course.addTask(this);
     }
 
@@ -63,6 +87,10 @@ public abstract class Task implements Comparable<Task> {
     }
 
 
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
     public String getStatement() {
         return statement;
     }
@@ -77,29 +105,81 @@ public abstract class Task implements Comparable<Task> {
         return order;
     }
 
+    public Long getOrderKey() {
+        return orderKey;
+    }
+
     public Integer getOrderGap(Task task) {
         Assert.notNull(task, "Received task can't be null");
         return Math.abs(this.order - task.getOrder());
     }
 
+    /**
+     * Tasks are identified by their course and statement, as in {@code UQ_Course_Statement}.
+     * The transient order is left out, since it changes whenever a task is inserted before this one.
+     */
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof Task task)) return false;
-        return Objects.equals(statement, task.statement) && Objects.equals(order, task.order) && getType() == task.getType() && Objects.equals(course, task.course);
+        return Objects.equals(statement, task.statement) && Objects.equals(course, task.course);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(statement, order, getType(), course);
+        return Objects.hash(statement, course);
     }
 
     @Override
     public int compareTo(Task other) {
-        return this.order.compareTo(other.order);
+        return this.orderKey.compareTo(other.orderKey);
     }
 
     public void incrementOrder() {
         this.order++;
     }
 
+    void assignOrder(Integer order) {
+        this.order = order;
+    }
+
+    void assignOrderKey(Long orderKey) {
+        this.orderKey = orderKey;
+    }
+
+    void shiftOrderKey(Long offset) {
+        this.orderKey += offset;
+    }
+
+    Boolean isPersisted() {
+        return this.id != null;
+    }
+
+    /**
+     * Checks if there is still an unused key between the received neighbours.
+     *
+     * @param previous the task right before the insertion point, or null when inserting at the head
+     * @param next the task currently at the insertion point
+     * @return true if a key strictly between both neighbours exists
+     */
+    static Boolean hasRoomBetween(Task previous, @NotNull Task next) {
+        long lowerKey = previous == null ? 0 : previous.orderKey;
+        return next.orderKey - lowerKey > 1;
+    }
+
+    /**
+     * Assigns this task a key between the received neighbours: a full {@link #ORDER_KEY_SPACING} after the previous
+     * one when appending, {@link #ORDER_KEY_SPACING} before the next one when the gap is wider than two spacings,
+     * and the midpoint otherwise. Taking the key right below the next neighbour keeps the rest of a wide gap
+     * for the following inserts at the same order.
+     *
+     * @param previous the task right before the insertion point, or null when inserting at the head
+     * @param next the task currently at the insertion point, or null when appending
+     */
+    void placeBetween(Task previous, Task next) {
+        long lowerKey = previous == null ? 0 : previous.orderKey;
+        this.orderKey = next == null
+                ? lowerKey + ORDER_KEY_SPACING
+                : Math.max(lowerKey + (next.orderKey - lowerKey) / 2, next.orderKey - ORDER_KEY_SPACING);
+    }
+
 }
@@ -8,6 +8,7 @@ import jakarta.persistence.MappedSuperclass;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.util.Assert;
 
 import java.util.List;
@@ -15,8 +16,15 @@ import java.util.List;
 @MappedSuperclass
 public abstract class TaskWithOptions extends Task {
 
+    public static final int OPTIONS_BATCH_SIZE = 100;
+
+    /**
+     * Lazy, but initialized in batches: touching the options of one task loads the options of up to
+     * {@value #OPTIONS_BATCH_SIZE} tasks of the same type in the persistence context with a single query.
+     */
     @ElementCollection
     @CollectionTable(name = "TaskOption", joinColumns = @JoinColumn(name = "task_id"))
+    @BatchSize(size = OPTIONS_BATCH_SIZE)
     private List<TaskOption> options;
 
     @Deprecated
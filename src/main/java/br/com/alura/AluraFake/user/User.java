@@ -1,5 +1,6 @@
 package br.com.alura.AluraFake.user;
 
+import br.com.alura.AluraFake.infra.AllocatedId;
 import br.com.alura.AluraFake.util.PasswordGeneration;
 import jakarta.persistence.*;
 
@@ -9,7 +10,7 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AllocatedId("User")
     private Long id;
     private LocalDateTime createdAt = LocalDateTime.now();
     private String name;
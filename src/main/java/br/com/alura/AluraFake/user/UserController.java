@@ -1,20 +1,27 @@
 package br.com.alura.AluraFake.user;
 
+import br.com.alura.AluraFake.infra.JsonStreamingQuery;
 import br.com.alura.AluraFake.util.ErrorItemDTO;
+import br.com.alura.AluraFake.util.KeysetCursor;
 import jakarta.validation.Valid;
 import org.springframework.http.*;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
 public class UserController {
 
+    private static final String ALL_USERS_SQL = "SELECT id, name, email, role FROM User ORDER BY id";
+
     private final UserRepository userRepository;
+    private final JsonStreamingQuery jsonStreamingQuery;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, JsonStreamingQuery jsonStreamingQuery) {
         this.userRepository = userRepository;
+        this.jsonStreamingQuery = jsonStreamingQuery;
     }
 
     @Transactional
@@ -29,9 +36,27 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @Transactional(readOnly = true)
     @GetMapping("/user/all")
-    public List<UserListItemDTO> listAllUsers() {
-        return userRepository.findAll().stream().map(UserListItemDTO::new).toList();
+    public ResponseEntity<List<UserListItemDTO>> listAllUsers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "${alurafake.pagination.default-size}") int size,
+            @RequestParam(name = "role", required = false) Role role
+    ) {
+        List<UserListItemDTO> users = userRepository.findPage(KeysetCursor.decode(cursor), role, KeysetCursor.limitFor(size)).stream()
+                .map(UserListItemDTO::new)
+                .toList();
+        return KeysetCursor.page(users, size, UserListItemDTO::getId);
+    }
+
+    /**
+     * Every user in a single response, written while it is read from the database.
+     */
+    @GetMapping("/user/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingQuery.streamArray(ALL_USERS_SQL, UserListItemDTO::fromRow));
     }
 
 }
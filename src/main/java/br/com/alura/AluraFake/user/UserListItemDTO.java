@@ -1,6 +1,8 @@
 package br.com.alura.AluraFake.user;
 
 import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 public class UserListItemDTO implements Serializable {
 
@@ -9,11 +11,28 @@ public class UserListItemDTO implements Serializable {
     private String email;
     private Role role;
 
-    public UserListItemDTO(User user) {
-        this.id = user.getId();
-        this.name = user.getName();
-        this.email = user.getEmail();
-        this.role = user.getRole();
+    public UserListItemDTO(UserProjection projection) {
+        this(projection.getId(), projection.getName(), projection.getEmail(), projection.getRole());
+    }
+
+    public UserListItemDTO(Long id, String name, String email, Role role) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.role = role;
+    }
+
+    /**
+     * Maps a row with the {@code id}, {@code name}, {@code email} and {@code role} columns of {@code User}.
+     */
+    public static UserListItemDTO fromRow(ResultSet row, int rowNumber) throws SQLException {
+        String role = row.getString("role");
+        return new UserListItemDTO(
+                row.getLong("id"),
+                row.getString("name"),
+                row.getString("email"),
+                role == null ? null : Role.valueOf(role)
+        );
     }
 
     public Long getId() {
@@ -0,0 +1,8 @@
+package br.com.alura.AluraFake.user;
+
+public interface UserProjection {
+    Long getId();
+    String getName();
+    String getEmail();
+    Role getRole();
+}
@@ -1,8 +1,10 @@
 package br.com.alura.AluraFake.user;
 
-
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -10,4 +12,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     Optional<User> findByEmail(String email);
+
+    /**
+     * Keyset page of users after {@code afterId}, optionally filtered by role, with only the listed columns.
+     * Served by {@code IDX_User_role_id}.
+     */
+    @Query("SELECT u.id as id, u.name as name, u.email as email, u.role as role " +
+           "FROM User u " +
+           "WHERE u.id > :afterId AND (:role IS NULL OR u.role = :role) " +
+           "ORDER BY u.id")
+    List<UserProjection> findPage(Long afterId, Role role, Limit limit);
 }
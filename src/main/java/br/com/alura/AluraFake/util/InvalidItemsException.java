@@ -0,0 +1,24 @@
+package br.com.alura.AluraFake.util;
+
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * Signals that some items of a bulk request were rejected, carrying one error per rejected field.
+ * Being unchecked, it also rolls back whatever was done for the valid items of the same request.
+ */
+public class InvalidItemsException extends RuntimeException {
+
+    private final List<ErrorItemDTO> errors;
+
+    public InvalidItemsException(List<ErrorItemDTO> errors) {
+        super("Received items are invalid");
+        Assert.notEmpty(errors, "errors must not be empty");
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<ErrorItemDTO> getErrors() {
+        return errors;
+    }
+}
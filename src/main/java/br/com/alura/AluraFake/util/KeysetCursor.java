@@ -0,0 +1,72 @@
+package br.com.alura.AluraFake.util;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over ascending ids. Each page is fetched with {@code id > lastSeenId ORDER BY id},
+ * so its cost doesn't grow with how deep the client is into the listing, unlike an offset.
+ *
+ * <p>The last id of a page goes back to the client as an opaque token in the {@value #NEXT_CURSOR_HEADER}
+ * header, keeping the response body a plain list. The header is absent on the last page.</p>
+ */
+public final class KeysetCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Long lastSeenId) {
+        Assert.notNull(lastSeenId, "lastSeenId must not be null");
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastSeenId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the last id seen by the client, or {@code 0} for the first page
+     * @throws IllegalArgumentException if the cursor was not created by {@link #encode(Long)}
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Assert.isTrue(decoded.startsWith(PREFIX), "Invalid cursor");
+            return Long.valueOf(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    /**
+     * Asks for one row more than the page size, so {@link #page} can tell whether there is a next page
+     * without a count query.
+     */
+    public static Limit limitFor(int size) {
+        Assert.isTrue(size >= 1 && size <= MAX_PAGE_SIZE, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        return Limit.of(size + 1);
+    }
+
+    public static <T> ResponseEntity<List<T>> page(List<T> rows, int size, Function<T, Long> idOf) {
+        if (rows.size() <= size) {
+            return ResponseEntity.ok(rows);
+        }
+
+        List<T> items = rows.subList(0, size);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, encode(idOf.apply(items.getLast())))
+                .body(items);
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.alura.AluraFake.util;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -24,4 +25,22 @@ public class ValidationExceptionHandler {
     public ResponseEntity<ErrorItemDTO> handleIllegalArgumentException(IllegalArgumentException ex) {
         return ResponseEntity.badRequest().body(new ErrorItemDTO("error", ex.getMessage()));
     }
+
+    @ExceptionHandler(InvalidItemsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<List<ErrorItemDTO>> handleInvalidItemsException(InvalidItemsException ex) {
+        return ResponseEntity.badRequest().body(ex.getErrors());
+    }
+
+    /**
+     * Concurrent writes that kept conflicting after being retried.
+     *
+     * @see br.com.alura.AluraFake.infra.RetryOnConflict
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ErrorItemDTO> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorItemDTO("course", "Course is being changed by another request, try again"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+ALTER TABLE Course
+    ADD COLUMN task_count int NOT NULL DEFAULT 0,
+    ADD COLUMN open_text_task_count int NOT NULL DEFAULT 0,
+    ADD COLUMN single_choice_task_count int NOT NULL DEFAULT 0,
+    ADD COLUMN multiple_choice_task_count int NOT NULL DEFAULT 0;
+
+UPDATE Course c
+JOIN (
+    SELECT course_id,
+           COUNT(*) AS task_count,
+           SUM(type = 'OPEN_TEXT') AS open_text_task_count,
+           SUM(type = 'SINGLE_CHOICE') AS single_choice_task_count,
+           SUM(type = 'MULTIPLE_CHOICE') AS multiple_choice_task_count
+    FROM Task
+    GROUP BY course_id
+) counts ON counts.course_id = c.id
+SET c.task_count = counts.task_count,
+    c.open_text_task_count = counts.open_text_task_count,
+    c.single_choice_task_count = counts.single_choice_task_count,
+    c.multiple_choice_task_count = counts.multiple_choice_task_count;
@@ -0,0 +1,5 @@
+CREATE INDEX IDX_Task_course_id_task_order ON Task (course_id, task_order);
+
+DROP INDEX IDX_course_id ON Task;
+
+CREATE INDEX IDX_Course_instructor_id_id ON Course (instructor_id, id);
@@ -0,0 +1,3 @@
+ALTER TABLE Task MODIFY task_order bigint NOT NULL;
+
+UPDATE Task SET task_order = task_order * 65536;
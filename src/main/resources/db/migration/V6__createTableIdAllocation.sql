@@ -0,0 +1,11 @@
+CREATE TABLE IdAllocation (
+    entity_name varchar(50) NOT NULL,
+    next_id bigint(20) NOT NULL,
+    PRIMARY KEY (entity_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci ROW_FORMAT=DYNAMIC;
+
+-- Hibernate's pooled optimizer reads next_id as the upper bound of the block it hands out,
+-- so each row starts one allocation (50) above the highest id already taken.
+INSERT INTO IdAllocation (entity_name, next_id) SELECT 'User', COALESCE(MAX(id), 0) + 50 FROM User;
+INSERT INTO IdAllocation (entity_name, next_id) SELECT 'Course', COALESCE(MAX(id), 0) + 50 FROM Course;
+INSERT INTO IdAllocation (entity_name, next_id) SELECT 'Task', COALESCE(MAX(id), 0) + 50 FROM Task;
@@ -0,0 +1,5 @@
+CREATE INDEX IDX_User_role_id ON User (role, id);
+
+CREATE INDEX IDX_Course_status_id ON Course (status, id);
+
+CREATE INDEX IDX_Course_instructor_status_id ON Course (instructor_id, status, id);
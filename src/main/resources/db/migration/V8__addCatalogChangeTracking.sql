@@ -0,0 +1,9 @@
+ALTER TABLE Course ADD COLUMN updatedAt datetime NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE Course SET updatedAt = COALESCE(publishedAt, createdAt);
+
+ALTER TABLE Task ADD COLUMN createdAt datetime NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IDX_Course_updatedAt ON Course (updatedAt);
+
+CREATE INDEX IDX_Task_createdAt_course_id ON Task (createdAt, course_id);
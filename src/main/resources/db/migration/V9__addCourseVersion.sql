@@ -0,0 +1 @@
+ALTER TABLE Course ADD COLUMN version bigint(20) NOT NULL DEFAULT 0;
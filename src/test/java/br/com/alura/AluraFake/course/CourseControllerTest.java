@@ -1,22 +1,33 @@
 package br.com.alura.AluraFake.course;
 
+import br.com.alura.AluraFake.infra.JsonStreamingQuery;
+import br.com.alura.AluraFake.task.domain.Type;
 import br.com.alura.AluraFake.user.*;
+import br.com.alura.AluraFake.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static br.com.alura.AluraFake.shared.CourseFactory.createCourseReadyToPublish;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CourseController.class)
+@Import(CourseDetailQuery.class)
 class CourseControllerTest {
 
     @Autowired
@@ -25,6 +36,8 @@ class CourseControllerTest {
     private UserRepository userRepository;
     @MockBean
     private CourseRepository courseRepository;
+    @MockBean
+    private JsonStreamingQuery jsonStreamingQuery;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -97,7 +110,7 @@ class CourseControllerTest {
         CourseProjection hibernate = createMockProjection(2L, "Hibernate", "Curso de hibernate", Status.BUILDING, null, 2L);
         CourseProjection spring = createMockProjection(3L, "Spring", "Curso de spring", Status.PUBLISHED, LocalDateTime.now(), 5L);
 
-        when(courseRepository.findAllWithTaskCount()).thenReturn(Arrays.asList(java, hibernate, spring));
+        when(courseRepository.findPageWithTaskCount(0L, null, null, Limit.of(51))).thenReturn(Arrays.asList(java, hibernate, spring));
 
         mockMvc.perform(get("/course/all")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -113,6 +126,62 @@ class CourseControllerTest {
                 .andExpect(jsonPath("$[2].taskCount").value(5));
     }
 
+    @Test
+    void listAllCourses__should_filter_and_return_next_cursor_when_there_are_more_courses() throws Exception {
+        CourseProjection java = createMockProjection(21L, "Java", "Curso de java", Status.PUBLISHED, LocalDateTime.now(), 3L);
+        CourseProjection spring = createMockProjection(22L, "Spring", "Curso de spring", Status.PUBLISHED, LocalDateTime.now(), 5L);
+
+        when(courseRepository.findPageWithTaskCount(20L, Status.PUBLISHED, 7L, Limit.of(2))).thenReturn(Arrays.asList(java, spring));
+
+        mockMvc.perform(get("/course/all")
+                        .param("cursor", KeysetCursor.encode(20L))
+                        .param("size", "1")
+                        .param("status", "PUBLISHED")
+                        .param("instructorId", "7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.encode(21L)))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Java"));
+    }
+
+    @Test
+    void listAllCourses__should_return_not_modified_without_building_the_page_when_it_is_unchanged() throws Exception {
+        when(courseRepository.findPageVersions(0L, null, null, Limit.of(51)))
+                .thenReturn(List.of(new CourseVersion(1L, 3L, Status.BUILDING), new CourseVersion(2L, 1L, Status.PUBLISHED)));
+
+        String eTag = mockMvc.perform(get("/course/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(courseRepository);
+
+        mockMvc.perform(get("/course/all").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(courseRepository, never()).findPageWithTaskCount(any(), any(), any(), any());
+    }
+
+    @Test
+    void listAllCourses__should_change_etag_when_a_course_of_the_page_changes() throws Exception {
+        when(courseRepository.findPageVersions(0L, null, null, Limit.of(51))).thenReturn(List.of(new CourseVersion(1L, 3L, Status.BUILDING)));
+        String eTag = mockMvc.perform(get("/course/all")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(courseRepository.findPageVersions(0L, null, null, Limit.of(51))).thenReturn(List.of(new CourseVersion(1L, 4L, Status.BUILDING)));
+
+        mockMvc.perform(get("/course/all").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void listAllCourses__should_return_bad_request_when_page_size_is_too_large() throws Exception {
+        mockMvc.perform(get("/course/all")
+                        .param("size", String.valueOf(KeysetCursor.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.field").value("error"));
+    }
+
     private CourseProjection createMockProjection(Long id, String title, String description, Status status, LocalDateTime publishedAt, Long taskCount) {
         CourseProjection projection = mock(CourseProjection.class);
         doReturn(id).when(projection).getId();
@@ -126,7 +195,7 @@ class CourseControllerTest {
 
     @Test
     void publishCourse__should_return_not_found_when_course_does_not_exist() throws Exception {
-        when(courseRepository.findById(999L)).thenReturn(Optional.empty());
+        when(courseRepository.findWithTasksById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/course/999/publish"))
                 .andExpect(status().isNotFound())
@@ -139,7 +208,7 @@ class CourseControllerTest {
         Course course = new Course("Java", "Curso de Java", instructor);
         course.setStatus(Status.PUBLISHED);
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
 
         mockMvc.perform(post("/course/1/publish"))
                 .andExpect(status().isBadRequest())
@@ -153,7 +222,7 @@ class CourseControllerTest {
 
         when(course.isBuilding()).thenReturn(true);
         when(course.hasContinuousTaskSequence()).thenReturn(false);
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
 
         mockMvc.perform(post("/course/1/publish"))
                 .andExpect(status().isBadRequest())
@@ -168,7 +237,7 @@ class CourseControllerTest {
         when(course.isBuilding()).thenReturn(true);
         when(course.hasContinuousTaskSequence()).thenReturn(true);
         when(course.hasAllTaskTypes()).thenReturn(false);
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
 
         mockMvc.perform(post("/course/1/publish"))
                 .andExpect(status().isBadRequest())
@@ -185,7 +254,7 @@ class CourseControllerTest {
         when(spyCourse.getId()).thenReturn(1L);
         when(spyCourse.hasContinuousTaskSequence()).thenReturn(true);
         when(spyCourse.hasAllTaskTypes()).thenReturn(true);
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(spyCourse));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(spyCourse));
 
         mockMvc.perform(post("/course/1/publish"))
                 .andExpect(status().isOk())
@@ -197,4 +266,137 @@ class CourseControllerTest {
         verify(courseRepository, times(1)).save(spyCourse);
     }
 
-}
\ No newline at end of file
+    @Test
+    void findCourse__should_return_not_found_when_course_does_not_exist() throws Exception {
+        when(courseRepository.findVersionById(999L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/course/999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Course not found"));
+    }
+
+    @Test
+    void findCourse__should_return_course_with_tasks_in_order() throws Exception {
+        FindCourseProjection openText = createMockRow(10L, "What is Java?", Type.OPEN_TEXT);
+        FindCourseProjection singleChoice = createMockRow(11L, "Which one is a JVM language?", Type.SINGLE_CHOICE);
+
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(new CourseVersion(1L, 4L, Status.BUILDING)));
+        when(courseRepository.findDetailById(1L)).thenReturn(List.of(openText, singleChoice));
+
+        mockMvc.perform(get("/course/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.title").value("Java"))
+                .andExpect(jsonPath("$.tasks[0].id").value(10))
+                .andExpect(jsonPath("$.tasks[0].order").value(1))
+                .andExpect(jsonPath("$.tasks[1].statement").value("Which one is a JVM language?"))
+                .andExpect(jsonPath("$.tasks[1].order").value(2))
+                .andExpect(jsonPath("$.tasks[1].type").value("SINGLE_CHOICE"));
+    }
+
+    @Test
+    void findCourse__should_return_not_modified_without_loading_the_course_when_etag_matches() throws Exception {
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(new CourseVersion(1L, 4L, Status.BUILDING)));
+
+        mockMvc.perform(get("/course/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(content().string(""));
+
+        verify(courseRepository, never()).findDetailById(any());
+    }
+
+    @Test
+    void findCourse__should_return_the_course_when_etag_is_outdated() throws Exception {
+        FindCourseProjection openText = createMockRow(10L, "What is Java?", Type.OPEN_TEXT);
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(new CourseVersion(1L, 5L, Status.BUILDING)));
+        when(courseRepository.findDetailById(1L)).thenReturn(List.of(openText));
+
+        mockMvc.perform(get("/course/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-5\""))
+                .andExpect(jsonPath("$.tasks[0].id").value(10));
+    }
+
+    @Test
+    void findCourse__should_let_clients_keep_a_published_course() throws Exception {
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(new CourseVersion(1L, 7L, Status.PUBLISHED)));
+
+        mockMvc.perform(get("/course/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"));
+    }
+
+    private FindCourseProjection createMockRow(Long taskId, String statement, Type type) {
+        FindCourseProjection row = mock(FindCourseProjection.class);
+        doReturn(1L).when(row).getId();
+        doReturn("Java").when(row).getTitle();
+        doReturn("Curso de Java").when(row).getDescription();
+        doReturn(Status.BUILDING).when(row).getStatus();
+        doReturn(taskId).when(row).getTaskId();
+        doReturn(statement).when(row).getStatement();
+        doReturn(type).when(row).getType();
+        return row;
+    }
+
+    @Test
+    void findCourseContent__should_return_not_found_when_course_does_not_exist() throws Exception {
+        when(courseRepository.findVersionById(999L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/course/999/content"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Course not found"));
+    }
+
+    @Test
+    void findCourseContent__should_return_tasks_with_their_options() throws Exception {
+        User instructor = new User("Paulo", "paulo@alura.com.br", Role.INSTRUCTOR);
+        Course course = createCourseReadyToPublish("Java", "Curso de Java", instructor);
+
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(new CourseVersion(1L, 3L, Status.BUILDING)));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+
+        mockMvc.perform(get("/course/1/content"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(jsonPath("$.title").value("Java"))
+                .andExpect(jsonPath("$.tasks.length()").value(3))
+                .andExpect(jsonPath("$.tasks[0].type").value("OPEN_TEXT"))
+                .andExpect(jsonPath("$.tasks[0].options").isEmpty())
+                .andExpect(jsonPath("$.tasks[1].type").value("SINGLE_CHOICE"))
+                .andExpect(jsonPath("$.tasks[1].options[0].option").value("This is correct"))
+                .andExpect(jsonPath("$.tasks[1].options[0].isCorrect").value(true))
+                .andExpect(jsonPath("$.tasks[2].type").value("MULTIPLE_CHOICE"))
+                .andExpect(jsonPath("$.tasks[2].options.length()").value(3));
+    }
+
+    @Test
+    void findCourseContent__should_return_not_modified_without_loading_tasks_when_etag_matches() throws Exception {
+        when(courseRepository.findVersionById(1L)).thenReturn(Optional.of(new CourseVersion(1L, 3L, Status.BUILDING)));
+
+        mockMvc.perform(get("/course/1/content").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(courseRepository, never()).findWithTasksById(any());
+    }
+
+    @Test
+    void listAllCourses__should_stream_every_course() throws Exception {
+        StreamingResponseBody body = outputStream -> outputStream.write("[{\"id\":1}]".getBytes());
+        when(jsonStreamingQuery.streamArray(anyString(), any())).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/course/all/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    private record CourseVersion(Long getId, Long getVersion, Status getStatus) implements CourseVersionProjection {
+    }
+}
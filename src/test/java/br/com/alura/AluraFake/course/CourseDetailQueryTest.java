@@ -0,0 +1,126 @@
+package br.com.alura.AluraFake.course;
+
+import br.com.alura.AluraFake.infra.CacheConfiguration;
+import br.com.alura.AluraFake.task.domain.Type;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfiguration.class, CourseDetailQuery.class},
+        properties = "alurafake.cache.published-course-detail.maximum-size=2")
+@ImportAutoConfiguration({CacheAutoConfiguration.class, MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+        CompositeMeterRegistryAutoConfiguration.class, CacheMetricsAutoConfiguration.class})
+class CourseDetailQueryTest {
+
+    @Autowired
+    private CourseDetailQuery courseDetailQuery;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CourseDetailQuery.PUBLISHED_COURSE_DETAIL_CACHE).clear();
+    }
+
+    @Test
+    void findById__should_read_a_published_course_from_the_database_only_once() {
+        double hitsBefore = gets("hit");
+        FindCourseProjection published = row(1L, Status.PUBLISHED);
+        when(courseRepository.findDetailById(1L)).thenReturn(List.of(published));
+
+        Optional<FindCourseDTO> first = courseDetailQuery.findById(1L);
+        Optional<FindCourseDTO> second = courseDetailQuery.findById(1L);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(second).get().extracting(FindCourseDTO::title).isEqualTo("Course 1");
+        verify(courseRepository, times(1)).findDetailById(1L);
+        assertThat(gets("hit")).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void findById__should_not_cache_a_course_being_built() {
+        FindCourseProjection building = row(2L, Status.BUILDING);
+        when(courseRepository.findDetailById(2L)).thenReturn(List.of(building));
+
+        courseDetailQuery.findById(2L);
+        courseDetailQuery.findById(2L);
+
+        verify(courseRepository, times(2)).findDetailById(2L);
+        assertThat(nativeCache().asMap()).doesNotContainKey(2L);
+    }
+
+    @Test
+    void findById__should_not_cache_a_missing_course() {
+        when(courseRepository.findDetailById(3L)).thenReturn(List.of());
+
+        assertThat(courseDetailQuery.findById(3L)).isEmpty();
+        assertThat(courseDetailQuery.findById(3L)).isEmpty();
+
+        verify(courseRepository, times(2)).findDetailById(3L);
+    }
+
+    @Test
+    void findById__should_keep_the_cache_within_its_maximum_size() {
+        double evictionsBefore = meterRegistry.get("cache.evictions").tag("cache", CourseDetailQuery.PUBLISHED_COURSE_DETAIL_CACHE).functionCounter().count();
+        for (long id = 10; id < 20; id++) {
+            FindCourseProjection published = row(id, Status.PUBLISHED);
+            when(courseRepository.findDetailById(id)).thenReturn(List.of(published));
+            courseDetailQuery.findById(id);
+        }
+
+        nativeCache().cleanUp();
+
+        assertThat(nativeCache().estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", CourseDetailQuery.PUBLISHED_COURSE_DETAIL_CACHE).functionCounter().count())
+                .isGreaterThanOrEqualTo(evictionsBefore + 8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<Object, Object> nativeCache() {
+        return (Cache<Object, Object>) cacheManager.getCache(CourseDetailQuery.PUBLISHED_COURSE_DETAIL_CACHE).getNativeCache();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CourseDetailQuery.PUBLISHED_COURSE_DETAIL_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private FindCourseProjection row(Long courseId, Status status) {
+        FindCourseProjection row = mock(FindCourseProjection.class);
+        doReturn(courseId).when(row).getId();
+        doReturn("Course " + courseId).when(row).getTitle();
+        doReturn("Description").when(row).getDescription();
+        doReturn(status).when(row).getStatus();
+        doReturn(courseId * 10).when(row).getTaskId();
+        doReturn("What is it about?").when(row).getStatement();
+        doReturn(Type.OPEN_TEXT).when(row).getType();
+        return row;
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.alura.AluraFake.course;
+
+import br.com.alura.AluraFake.shared.QueryPlans;
+import br.com.alura.AluraFake.task.TaskRepository;
+import br.com.alura.AluraFake.task.domain.OpenTextTask;
+import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.com.alura.AluraFake.shared.QueryPlans.assertNoFullTableScan;
+import static br.com.alura.AluraFake.shared.QueryPlans.assertUsesIndex;
+import static br.com.alura.AluraFake.shared.QueryPlans.lastStatement;
+
+/**
+ * Runs {@code EXPLAIN} on the statements Hibernate generates for the course and task queries,
+ * against enough courses and tasks that the optimizer prefers an index whenever one matches.
+ */
+@DataJpaTest(properties = QueryPlans.STATEMENT_INSPECTOR)
+@ActiveProfiles("test")
+class CourseQueryPlanTest {
+
+    private static final int COURSES = 200;
+    private static final int TASKS = 50;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User instructor;
+
+    private Course courseWithTasks;
+
+    @BeforeEach
+    void setUp() {
+        instructor = new User("John", "john.plans@alura.com", Role.INSTRUCTOR);
+        User otherInstructor = new User("Jane", "jane.plans@alura.com", Role.INSTRUCTOR);
+        userRepository.saveAll(List.of(instructor, otherInstructor));
+
+        List<Course> courses = new ArrayList<>();
+        for (int index = 0; index < COURSES; index++) {
+            Course course = new Course("Course " + index, "Description", index % 2 == 0 ? instructor : otherInstructor);
+            new OpenTextTask(course, "First task", 1);
+            new OpenTextTask(course, "Second task", 2);
+            if (index % 10 == 9) {
+                course.setStatus(Status.PUBLISHED);
+            }
+            courses.add(course);
+        }
+        courseWithTasks = courses.getFirst();
+        for (int order = 3; order <= TASKS; order++) {
+            new OpenTextTask(courseWithTasks, "Task number " + order, order);
+        }
+        courseRepository.saveAll(courses);
+        entityManager.flush();
+        entityManager.clear();
+        QueryPlans.clearStatements();
+    }
+
+    @Test
+    void findPageWithTaskCount__should_use_an_index_for_every_filter() {
+        courseRepository.findPageWithTaskCount(0L, Status.PUBLISHED, null, Limit.of(10));
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), 0L, "PUBLISHED", "PUBLISHED", null, null, 10);
+
+        courseRepository.findPageWithTaskCount(0L, null, instructor.getId(), Limit.of(10));
+        assertUsesIndex(jdbcTemplate, "IDX_Course_instructor_id_id", lastStatement(), 0L, null, null, instructor.getId(), instructor.getId(), 10);
+
+        courseRepository.findPageWithTaskCount(0L, Status.PUBLISHED, instructor.getId(), Limit.of(10));
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), 0L, "PUBLISHED", "PUBLISHED", instructor.getId(), instructor.getId(), 10);
+    }
+
+    @Test
+    void findPageVersions__should_use_an_index_for_every_filter() {
+        courseRepository.findPageVersions(0L, Status.PUBLISHED, null, Limit.of(10));
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), 0L, "PUBLISHED", "PUBLISHED", null, null, 10);
+
+        courseRepository.findPageVersions(0L, Status.PUBLISHED, instructor.getId(), Limit.of(10));
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), 0L, "PUBLISHED", "PUBLISHED", instructor.getId(), instructor.getId(), 10);
+    }
+
+    @Test
+    void findDetailById__should_read_the_tasks_of_the_course_in_order_through_an_index() {
+        courseRepository.findDetailById(courseWithTasks.getId());
+
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), courseWithTasks.getId());
+    }
+
+    @Test
+    void findWithTasksById__should_read_the_tasks_of_the_course_in_order_through_an_index() {
+        courseRepository.findWithTasksById(courseWithTasks.getId());
+
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), courseWithTasks.getId());
+    }
+
+    @Test
+    void shiftOrderKeys__should_only_touch_the_shifted_tasks_of_the_course() {
+        taskRepository.shiftOrderKeys(courseWithTasks.getId(), 40 * Task.ORDER_KEY_SPACING, Task.ORDER_KEY_SPACING);
+
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), Task.ORDER_KEY_SPACING, courseWithTasks.getId(), 40 * Task.ORDER_KEY_SPACING);
+    }
+}
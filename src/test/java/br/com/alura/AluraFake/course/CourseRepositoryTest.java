@@ -1,12 +1,21 @@
 package br.com.alura.AluraFake.course;
 
+import br.com.alura.AluraFake.task.domain.MultipleChoiceTask;
 import br.com.alura.AluraFake.task.domain.OpenTextTask;
+import br.com.alura.AluraFake.task.domain.SingleChoiceTask;
+import br.com.alura.AluraFake.task.domain.Task;
+import br.com.alura.AluraFake.task.domain.TaskOption;
+import br.com.alura.AluraFake.task.domain.Type;
 import br.com.alura.AluraFake.user.Role;
 import br.com.alura.AluraFake.user.User;
 import br.com.alura.AluraFake.user.UserRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
@@ -71,66 +80,284 @@ class CourseRepositoryTest {
     }
 
     @Test
-    void findByInstructorIdWithTaskCount__should_return_courses_for_specific_instructor() {
-        User instructor1 = new User("John", "john@alura.com", Role.INSTRUCTOR);
-        User instructor2 = new User("Jane", "jane@alura.com", Role.INSTRUCTOR);
-        userRepository.saveAll(List.of(instructor1, instructor2));
+    void findAllWithTaskCount__should_include_published_courses() {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
 
-        Course course1 = new Course("Java", "Java course", instructor1);
-        Course course2 = new Course("Python", "Python course", instructor2);
-        new OpenTextTask(course1, "What is Java?", 1);
-        courseRepository.saveAll(List.of(course1, course2));
+        Course course = createCourseReadyToPublish("Course", "Description", instructor);
+        course.publish();
+        courseRepository.save(course);
 
         entityManager.flush();
         entityManager.clear();
 
-        List<CourseProjection> result = courseRepository.findByInstructorIdWithTaskCount(instructor1.getId());
+        List<CourseProjection> result = courseRepository.findAllWithTaskCount();
 
         assertThat(result).hasSize(1);
 
-        CourseProjection javaProjection = result.getFirst();
-        assertEquals("Java", javaProjection.getTitle());
-        assertEquals("Java course", javaProjection.getDescription());
-        assertEquals(Status.BUILDING, javaProjection.getStatus());
-        assertEquals(1L, javaProjection.getTaskCount());
-        assertThat(javaProjection.getPublishedAt()).isNull();
+        CourseProjection published = result.getFirst();
+        assertEquals("Course", published.getTitle());
+        assertEquals("Description", published.getDescription());
+        assertEquals(Status.PUBLISHED, published.getStatus());
+        assertEquals(3L, published.getTaskCount());
+        assertThat(published.isPublished()).isTrue();
+        assertThat(published.getPublishedAt()).isNotNull();
     }
 
     @Test
-    void findByInstructorIdWithTaskCount__should_return_empty_list_when_instructor_has_no_courses() {
-        User instructor = new User("No Courses", "nocourses@alura.com", Role.INSTRUCTOR);
-        userRepository.save(instructor);
+    void findPageWithTaskCount__should_walk_filtered_courses_in_id_order() {
+        User paulo = userRepository.save(new User("Paulo", "paulo.page@alura.com", Role.INSTRUCTOR));
+        User ana = userRepository.save(new User("Ana", "ana.page@alura.com", Role.INSTRUCTOR));
 
+        Course java = createCourseReadyToPublish("Java", "Java course", paulo);
+        java.publish();
+        Course spring = new Course("Spring", "Spring course", paulo);
+        Course kotlin = createCourseReadyToPublish("Kotlin", "Kotlin course", paulo);
+        kotlin.publish();
+        Course scala = createCourseReadyToPublish("Scala", "Scala course", ana);
+        scala.publish();
+        courseRepository.saveAll(List.of(java, spring, kotlin, scala));
         entityManager.flush();
         entityManager.clear();
 
-        List<CourseProjection> result = courseRepository.findByInstructorIdWithTaskCount(instructor.getId());
+        List<CourseProjection> firstPage = courseRepository.findPageWithTaskCount(0L, Status.PUBLISHED, paulo.getId(), Limit.of(1));
+        List<CourseProjection> secondPage = courseRepository.findPageWithTaskCount(firstPage.getLast().getId(), Status.PUBLISHED, paulo.getId(), Limit.of(1));
+        List<CourseProjection> lastPage = courseRepository.findPageWithTaskCount(secondPage.getLast().getId(), Status.PUBLISHED, paulo.getId(), Limit.of(1));
+        List<CourseProjection> unfiltered = courseRepository.findPageWithTaskCount(0L, null, null, Limit.of(10));
 
-        assertThat(result).isEmpty();
+        assertThat(firstPage).extracting(CourseProjection::getTitle).containsExactly("Java");
+        assertThat(firstPage).extracting(CourseProjection::getTaskCount).containsExactly(3L);
+        assertThat(secondPage).extracting(CourseProjection::getTitle).containsExactly("Kotlin");
+        assertThat(lastPage).isEmpty();
+        assertThat(unfiltered).extracting(CourseProjection::getTitle).containsExactly("Java", "Spring", "Kotlin", "Scala");
     }
 
     @Test
-    void findAllWithTaskCount__should_include_published_courses() {
+    void findById__should_derive_dense_task_orders_after_inserting_at_the_head() {
         User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
         userRepository.save(instructor);
 
-        Course course = createCourseReadyToPublish("Course", "Description", instructor);
+        Course course = new Course("Course", "Description", instructor);
+        new OpenTextTask(course, "Task 1", 1);
+        new OpenTextTask(course, "Task 2", 2);
+        courseRepository.save(course);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Course loadedCourse = courseRepository.findById(course.getId()).orElseThrow();
+        entityManager.persist(new OpenTextTask(loadedCourse, "New first task", 1));
+
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Task> tasks = List.copyOf(courseRepository.findById(course.getId()).orElseThrow().getTasks());
+        assertThat(tasks).extracting(Task::getStatement).containsExactly("New first task", "Task 1", "Task 2");
+        assertThat(tasks).extracting(Task::getOrder).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void findById__should_load_only_the_course_row() {
+        Long courseId = persistCourseReadyToPublish();
+        Statistics statistics = enableStatistics();
+
+        Course course = courseRepository.findById(courseId).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(isLoaded(course, "tasks")).isFalse();
+        assertThat(isLoaded(course, "instructor")).isFalse();
+    }
+
+    @Test
+    void findWithTasksById__should_validate_publishing_rules_with_a_single_statement() {
+        Long courseId = persistCourseReadyToPublish();
+        Statistics statistics = enableStatistics();
+
+        Course course = courseRepository.findWithTasksById(courseId).orElseThrow();
         course.publish();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(isLoaded(course, "instructor")).isFalse();
+    }
+
+    @Test
+    void findWithTasksById__should_validate_and_place_a_new_task_with_a_single_statement() {
+        Long courseId = persistCourseReadyToPublish();
+        Statistics statistics = enableStatistics();
+
+        Course course = courseRepository.findWithTasksById(courseId).orElseThrow();
+        assertThat(course.hasTaskWithStatement("What is Java?")).isTrue();
+        assertThat(course.isOrderPlacementValid(2)).isTrue();
+        new OpenTextTask(course, "What is a JVM?", 2);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(isLoaded(course, "instructor")).isFalse();
+    }
+
+    @Test
+    void findDetailById__should_project_course_and_tasks_without_managed_entities() {
+        Long courseId = persistCourseReadyToPublish();
+        Statistics statistics = enableStatistics();
+
+        FindCourseDTO dto = FindCourseDTO.fromProjections(courseRepository.findDetailById(courseId));
+
+        assertThat(dto.title()).isEqualTo("Java");
+        assertThat(dto.tasks()).extracting(FindCourseDTO.TaskDTO::order).containsExactly(1, 2, 3);
+        assertThat(dto.tasks()).extracting(FindCourseDTO.TaskDTO::type)
+                .containsExactly(Type.OPEN_TEXT, Type.SINGLE_CHOICE, Type.MULTIPLE_CHOICE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void findDetailById__should_return_a_row_without_task_for_course_without_tasks() {
+        User instructor = new User("Ann", "ann.empty@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
+        Course course = new Course("Empty", "Course without tasks", instructor);
         courseRepository.save(course);
+        entityManager.flush();
+        entityManager.clear();
 
+        FindCourseDTO dto = FindCourseDTO.fromProjections(courseRepository.findDetailById(course.getId()));
+
+        assertThat(dto.id()).isEqualTo(course.getId());
+        assertThat(dto.tasks()).isEmpty();
+    }
+
+    @Test
+    void findDetailById__should_return_no_rows_when_course_does_not_exist() {
+        assertThat(courseRepository.findDetailById(-1L)).isEmpty();
+    }
+
+    @Test
+    void findWithTasksById__should_load_options_of_every_task_in_a_bounded_number_of_statements() {
+        User instructor = new User("Ann", "ann.content@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
+        Course course = new Course("Large Course", "Course with many choice tasks", instructor);
+        for (int order = 1; order <= 120; order += 2) {
+            new SingleChoiceTask(course, "Single choice task " + order, order, List.of(
+                    new TaskOption("Correct option", true),
+                    new TaskOption("Wrong option", false)
+            ));
+            new MultipleChoiceTask(course, "Multiple choice task " + order, order + 1, List.of(
+                    new TaskOption("Correct option", true),
+                    new TaskOption("Another correct option", true),
+                    new TaskOption("Wrong option", false)
+            ));
+        }
+        courseRepository.save(course);
         entityManager.flush();
         entityManager.clear();
+        Statistics statistics = enableStatistics();
 
-        List<CourseProjection> result = courseRepository.findAllWithTaskCount();
+        CourseContentDTO content = CourseContentDTO.fromModel(courseRepository.findWithTasksById(course.getId()).orElseThrow());
 
-        assertThat(result).hasSize(1);
+        assertThat(content.tasks()).hasSize(120);
+        assertThat(content.tasks()).allSatisfy(task -> assertThat(task.options()).isNotEmpty());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
 
-        CourseProjection published = result.getFirst();
-        assertEquals("Course", published.getTitle());
-        assertEquals("Description", published.getDescription());
-        assertEquals(Status.PUBLISHED, published.getStatus());
-        assertEquals(3L, published.getTaskCount());
-        assertThat(published.isPublished()).isTrue();
-        assertThat(published.getPublishedAt()).isNotNull();
+    @Test
+    void findVersionById__should_change_when_the_course_is_published() {
+        Long courseId = persistCourseReadyToPublish();
+        Long version = courseRepository.findVersionById(courseId).orElseThrow().getVersion();
+
+        Course course = courseRepository.findWithTasksById(courseId).orElseThrow();
+        course.publish();
+        entityManager.flush();
+
+        CourseVersionProjection published = courseRepository.findVersionById(courseId).orElseThrow();
+        assertThat(published.getVersion()).isEqualTo(version + 1);
+        assertThat(published.eTag()).isEqualTo("\"" + courseId + "-" + (version + 1) + "\"");
+    }
+
+    @Test
+    void incrementVersion__should_change_the_version_without_loading_the_course() {
+        Long courseId = persistCourseReadyToPublish();
+        Long version = courseRepository.findVersionById(courseId).orElseThrow().getVersion();
+
+        assertThat(courseRepository.incrementVersion(courseId, version)).isEqualTo(1);
+
+        assertThat(courseRepository.findVersionById(courseId).orElseThrow().getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void incrementVersion__should_not_change_a_course_that_moved_past_the_expected_version() {
+        Long courseId = persistCourseReadyToPublish();
+        Long version = courseRepository.findVersionById(courseId).orElseThrow().getVersion();
+        courseRepository.incrementVersion(courseId, version);
+
+        assertThat(courseRepository.incrementVersion(courseId, version)).isZero();
+
+        assertThat(courseRepository.findVersionById(courseId).orElseThrow().getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void save__should_persist_the_task_counters_of_a_new_course() {
+        Long courseId = persistCourseReadyToPublish();
+
+        Course course = courseRepository.findById(courseId).orElseThrow();
+
+        assertThat(course.getTaskCount()).isEqualTo(3);
+        assertThat(course.getTaskCount(Type.OPEN_TEXT)).isEqualTo(1);
+        assertThat(course.getTaskCount(Type.SINGLE_CHOICE)).isEqualTo(1);
+        assertThat(course.getTaskCount(Type.MULTIPLE_CHOICE)).isEqualTo(1);
+        assertThat(course.hasAllTaskTypes()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void incrementTaskCounts__should_add_to_the_total_and_per_type_counters() {
+        Long courseId = persistCourseReadyToPublish();
+
+        assertThat(courseRepository.incrementTaskCounts(courseId, 2, 0, 1)).isEqualTo(1);
+        entityManager.clear();
+
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        assertThat(course.getTaskCount()).isEqualTo(6);
+        assertThat(course.getTaskCount(Type.OPEN_TEXT)).isEqualTo(3);
+        assertThat(course.getTaskCount(Type.SINGLE_CHOICE)).isEqualTo(1);
+        assertThat(course.getTaskCount(Type.MULTIPLE_CHOICE)).isEqualTo(2);
+    }
+
+    @Test
+    void findPageVersions__should_return_the_versions_of_the_filtered_page() {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
+        Course building = new Course("Course A", "Description A", instructor);
+        Course published = new Course("Course B", "Description B", instructor);
+        published.setStatus(Status.PUBLISHED);
+        courseRepository.saveAll(List.of(building, published));
+        entityManager.flush();
+
+        List<CourseVersionProjection> versions = courseRepository.findPageVersions(0L, Status.PUBLISHED, instructor.getId(), Limit.of(10));
+
+        assertThat(versions).extracting(CourseVersionProjection::getId).containsExactly(published.getId());
+        assertThat(versions).extracting(CourseVersionProjection::getVersion).containsExactly(0L);
+    }
+
+    private Long persistCourseReadyToPublish() {
+        User instructor = new User("Ann", "ann.graph@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
+        Course course = createCourseReadyToPublish("Java", "Java course", instructor);
+        courseRepository.save(course);
+
+        entityManager.flush();
+        entityManager.clear();
+        return course.getId();
+    }
+
+    private Statistics enableStatistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+    private boolean isLoaded(Course course, String attribute) {
+        return entityManager.getEntityManager().getEntityManagerFactory()
+                .getPersistenceUnitUtil().isLoaded(course, attribute);
+    }
+
+}
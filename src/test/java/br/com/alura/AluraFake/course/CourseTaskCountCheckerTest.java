@@ -0,0 +1,78 @@
+package br.com.alura.AluraFake.course;
+
+import br.com.alura.AluraFake.course.CourseTaskCountChecker.CourseTaskCountDrift;
+import br.com.alura.AluraFake.course.CourseTaskCountChecker.TaskCounts;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static br.com.alura.AluraFake.shared.CourseFactory.createCourseReadyToPublish;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(CourseTaskCountChecker.class)
+class CourseTaskCountCheckerTest {
+
+    @Autowired
+    private CourseTaskCountChecker courseTaskCountChecker;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void findDrift__should_report_nothing_when_counters_match_the_tasks() {
+        persistCourses();
+
+        assertThat(courseTaskCountChecker.findDrift()).isEmpty();
+    }
+
+    @Test
+    void findDrift__should_report_courses_whose_counters_differ_from_their_tasks() {
+        Long courseId = persistCourses();
+        jdbcTemplate.update("DELETE FROM Task WHERE course_id = ? AND type = 'OPEN_TEXT'", courseId);
+
+        assertThat(courseTaskCountChecker.findDrift()).containsExactly(
+                new CourseTaskCountDrift(courseId, new TaskCounts(3, 1, 1, 1), new TaskCounts(2, 0, 1, 1)));
+    }
+
+    @Test
+    void repairDrift__should_overwrite_drifted_counters_with_the_actual_counts() {
+        Long courseId = persistCourses();
+        jdbcTemplate.update("UPDATE Course SET task_count = 0, single_choice_task_count = 5 WHERE id = ?", courseId);
+
+        assertThat(courseTaskCountChecker.repairDrift()).isEqualTo(1);
+
+        assertThat(courseTaskCountChecker.findDrift()).isEmpty();
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        assertThat(course.getTaskCount()).isEqualTo(3);
+    }
+
+    /**
+     * A course ready to publish, with one task of each type, next to a course without tasks.
+     */
+    private Long persistCourses() {
+        User instructor = userRepository.save(new User("Ann", "ann.counts@alura.com", Role.INSTRUCTOR));
+        Course course = courseRepository.save(createCourseReadyToPublish("Java", "Java course", instructor));
+        courseRepository.save(new Course("Empty", "Course without tasks", instructor));
+        entityManager.flush();
+        entityManager.clear();
+        return course.getId();
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.alura.AluraFake.course;
+
+import br.com.alura.AluraFake.task.domain.MultipleChoiceTask;
+import br.com.alura.AluraFake.task.domain.OpenTextTask;
+import br.com.alura.AluraFake.task.domain.SingleChoiceTask;
+import br.com.alura.AluraFake.task.domain.TaskOption;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tasks join the course through {@link Course#addTask}, called by their constructors, which keeps the
+ * counters {@link Course#hasAllTaskTypes()} reads.
+ */
+class CourseTest {
+
+    private final Course course = new Course("Java", "Java course", new User("John", "john@alura.com", Role.INSTRUCTOR));
+
+    @Test
+    void hasAllTaskTypes__should_return_false_when_course_has_no_tasks() {
+        assertFalse(course.hasAllTaskTypes());
+    }
+
+    @Test
+    void hasAllTaskTypes__should_return_false_when_missing_task_types() {
+        new OpenTextTask(course, "Open text task", 1);
+        singleChoiceTask("Single choice task", 2);
+
+        assertFalse(course.hasAllTaskTypes());
+    }
+
+    @Test
+    void hasAllTaskTypes__should_return_true_when_all_task_types_present() {
+        new OpenTextTask(course, "Open text task", 1);
+        singleChoiceTask("Single choice task", 2);
+        multipleChoiceTask("Multiple choice task", 3);
+
+        assertTrue(course.hasAllTaskTypes());
+    }
+
+    @Test
+    void hasAllTaskTypes__should_return_true_when_multiple_tasks_of_each_type() {
+        new OpenTextTask(course, "Open text task 1", 1);
+        new OpenTextTask(course, "Open text task 2", 2);
+        singleChoiceTask("Single choice task 1", 3);
+        singleChoiceTask("Single choice task 2", 4);
+        multipleChoiceTask("Multiple choice task 1", 5);
+        multipleChoiceTask("Multiple choice task 2", 6);
+
+        assertTrue(course.hasAllTaskTypes());
+    }
+
+    private void singleChoiceTask(String statement, int order) {
+        new SingleChoiceTask(course, statement, order, List.of(
+                new TaskOption("Option A", true),
+                new TaskOption("Option B", false)
+        ));
+    }
+
+    private void multipleChoiceTask(String statement, int order) {
+        new MultipleChoiceTask(course, statement, order, List.of(
+                new TaskOption("Option A", true),
+                new TaskOption("Option B", true),
+                new TaskOption("Option C", false)
+        ));
+    }
+}
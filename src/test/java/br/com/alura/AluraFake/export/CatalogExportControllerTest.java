@@ -0,0 +1,78 @@
+package br.com.alura.AluraFake.export;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogExportController.class)
+class CatalogExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogExporter catalogExporter;
+
+    @Test
+    void exportCatalog__should_stream_newline_delimited_json() throws Exception {
+        StreamingResponseBody body = outputStream -> outputStream.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+        when(catalogExporter.exportCatalog(null)).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/export/catalog.ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void exportCatalog__should_pass_updated_since_to_the_exporter() throws Exception {
+        LocalDateTime updatedSince = LocalDateTime.of(2025, 3, 1, 10, 30);
+        when(catalogExporter.exportCatalog(updatedSince)).thenReturn(outputStream -> {});
+
+        mockMvc.perform(get("/export/catalog.ndjson").param("updatedSince", "2025-03-01T10:30:00"))
+                .andExpect(request().asyncStarted());
+
+        verify(catalogExporter).exportCatalog(updatedSince);
+    }
+
+    @Test
+    void exportCatalog__should_return_service_unavailable_when_too_many_exports_are_running() throws Exception {
+        when(catalogExporter.exportCatalog(null)).thenReturn(outputStream -> {
+            throw new CatalogExportUnavailableException();
+        });
+
+        MvcResult result = mockMvc.perform(get("/export/catalog.ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.field").value("export"));
+    }
+
+    @Test
+    void exportCatalog__should_return_bad_request_when_updated_since_is_invalid() throws Exception {
+        mockMvc.perform(get("/export/catalog.ndjson").param("updatedSince", "yesterday"))
+                .andExpect(status().isBadRequest());
+
+        verify(catalogExporter, never()).exportCatalog(any());
+    }
+}
@@ -0,0 +1,188 @@
+package br.com.alura.AluraFake.export;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.shared.CourseFactory;
+import br.com.alura.AluraFake.task.TaskRepository;
+import br.com.alura.AluraFake.task.domain.OpenTextTask;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The exporter reads on connections of its own, so the data it exports must be committed:
+ * these tests run outside of the usual rolled back test transaction and clean up after themselves.
+ */
+@DataJpaTest(properties = {"spring.profiles.active=test", "alurafake.export.max-concurrent-exports=1"})
+@AutoConfigureJson
+@Import(CatalogExporter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogExporterTest {
+
+    private static final String INSTRUCTOR_EMAIL = "instructor@export.test";
+
+    @Autowired
+    private CatalogExporter catalogExporter;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User instructor;
+
+    @BeforeEach
+    void setUp() {
+        instructor = userRepository.save(new User("Paulo", INSTRUCTOR_EMAIL, Role.INSTRUCTOR));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE c FROM Course c JOIN User u ON u.id = c.instructor_id WHERE u.email = ?", INSTRUCTOR_EMAIL);
+        jdbcTemplate.update("DELETE FROM User WHERE email = ?", INSTRUCTOR_EMAIL);
+    }
+
+    @Test
+    void exportCatalog__should_write_one_line_per_course_with_tasks_and_options() throws Exception {
+        Course java = courseRepository.save(CourseFactory.createCourseReadyToPublish("Java", "Curso de Java", instructor));
+        Course empty = courseRepository.save(new Course("Empty", "No tasks yet", instructor));
+        Course spring = courseRepository.save(CourseFactory.createCourseReadyToPublish("Spring", "Curso de Spring", instructor));
+
+        List<JsonNode> lines = exportedCourses(null, Set.of(java.getId(), empty.getId(), spring.getId()));
+
+        assertThat(lines).extracting(line -> line.get("id").asLong())
+                .containsExactly(java.getId(), empty.getId(), spring.getId());
+
+        JsonNode javaLine = lines.get(0);
+        assertThat(javaLine.get("title").asText()).isEqualTo("Java");
+        assertThat(javaLine.get("status").asText()).isEqualTo("BUILDING");
+        assertThat(javaLine.get("tasks")).hasSize(3);
+        assertThat(javaLine.get("tasks")).extracting(task -> task.get("order").asInt()).containsExactly(1, 2, 3);
+        assertThat(javaLine.get("tasks")).extracting(task -> task.get("type").asText())
+                .containsExactly("OPEN_TEXT", "SINGLE_CHOICE", "MULTIPLE_CHOICE");
+        assertThat(javaLine.get("tasks").get(0).get("options")).isEmpty();
+        assertThat(javaLine.get("tasks").get(1).get("options")).extracting(option -> option.get("option").asText())
+                .containsExactly("This is correct", "This is incorrect");
+        assertThat(javaLine.get("tasks").get(2).get("options")).extracting(option -> option.get("isCorrect").asBoolean())
+                .containsExactly(true, true, false);
+
+        assertThat(lines.get(1).get("tasks")).isEmpty();
+        assertThat(lines.get(2).get("tasks").get(0).get("statement").asText()).isEqualTo("What is Spring?");
+    }
+
+    @Test
+    void exportCatalog__should_only_write_courses_changed_since_the_given_instant() throws Exception {
+        Course unchanged = courseRepository.save(CourseFactory.createCourseReadyToPublish("Java", "Curso de Java", instructor));
+        Course withNewTask = courseRepository.save(CourseFactory.createCourseReadyToPublish("Spring", "Curso de Spring", instructor));
+        Course recent = courseRepository.save(new Course("Kotlin", "Curso de Kotlin", instructor));
+        backdate(unchanged, withNewTask);
+
+        Course withNewTaskLoaded = courseRepository.findWithTasksById(withNewTask.getId()).orElseThrow();
+        taskRepository.save(new OpenTextTask(withNewTaskLoaded, "What changed in Spring?", 4));
+
+        List<JsonNode> lines = exportedCourses(LocalDateTime.now().minusDays(1), Set.of(unchanged.getId(), withNewTask.getId(), recent.getId()));
+
+        assertThat(lines).extracting(line -> line.get("id").asLong()).containsExactly(withNewTask.getId(), recent.getId());
+        assertThat(lines.get(0).get("tasks")).hasSize(4);
+    }
+
+    @Test
+    void exportCatalog__should_refuse_an_export_beyond_the_maximum_running_at_once() throws Exception {
+        Course java = courseRepository.save(CourseFactory.createCourseReadyToPublish("Java", "Curso de Java", instructor));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        OutputStream blockedOutput = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                writing.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                catalogExporter.exportCatalog(null).writeTo(blockedOutput);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> catalogExporter.exportCatalog(null).writeTo(new ByteArrayOutputStream()))
+                .isInstanceOf(CatalogExportUnavailableException.class);
+
+        released.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        assertThat(exportedCourses(null, Set.of(java.getId()))).hasSize(1);
+    }
+
+    private void backdate(Course... courses) {
+        for (Course course : courses) {
+            jdbcTemplate.update("UPDATE Course SET updatedAt = '2020-01-01 00:00:00' WHERE id = ?", course.getId());
+            jdbcTemplate.update("UPDATE Task SET createdAt = '2020-01-01 00:00:00' WHERE course_id = ?", course.getId());
+        }
+    }
+
+    /**
+     * Exported lines of the given courses, leaving out anything else the test database may hold.
+     */
+    private List<JsonNode> exportedCourses(LocalDateTime updatedSince, Set<Long> courseIds) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        catalogExporter.exportCatalog(updatedSince).writeTo(output);
+
+        String export = output.toString();
+        assertThat(export).endsWith("\n");
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : export.split("\n")) {
+            JsonNode course = objectMapper.readTree(line);
+            if (courseIds.contains(course.get("id").asLong())) {
+                lines.add(course);
+            }
+        }
+        return lines;
+    }
+}
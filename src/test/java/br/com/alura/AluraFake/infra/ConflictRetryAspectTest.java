@@ -0,0 +1,93 @@
+package br.com.alura.AluraFake.infra;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConflictRetryAspectTest {
+
+    @Test
+    void retry__should_run_the_method_again_until_it_succeeds() {
+        Writer writer = retrying(new Writer(2));
+
+        assertThat(writer.write()).isEqualTo("written");
+        assertThat(writer.calls()).isEqualTo(3);
+    }
+
+    @Test
+    void retry__should_give_up_after_the_maximum_number_of_attempts() {
+        Writer writer = retrying(new Writer(10));
+
+        assertThatThrownBy(writer::write).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(writer.calls()).isEqualTo(3);
+    }
+
+    @Test
+    void retry__should_not_retry_failures_that_are_not_conflicts() {
+        Writer writer = retrying(new Writer(0));
+
+        assertThatThrownBy(writer::reject).isInstanceOf(IllegalArgumentException.class);
+        assertThat(writer.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void retry__should_also_retry_lock_failures() {
+        Writer writer = retrying(new Writer(1));
+
+        assertThat(writer.lock()).isEqualTo("locked");
+        assertThat(writer.calls()).isEqualTo(2);
+    }
+
+    private static Writer retrying(Writer target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ConflictRetryAspect(3, Duration.ofMillis(1), Duration.ofMillis(4)));
+        return proxyFactory.getProxy();
+    }
+
+    static class Writer {
+
+        private final int conflicts;
+        private int calls;
+
+        Writer() {
+            this(0);
+        }
+
+        Writer(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @RetryOnConflict
+        public String write() {
+            if (++calls <= conflicts) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "written";
+        }
+
+        @RetryOnConflict
+        public String lock() {
+            if (++calls <= conflicts) {
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+            }
+            return "locked";
+        }
+
+        @RetryOnConflict
+        public void reject() {
+            calls++;
+            throw new IllegalArgumentException("Invalid task");
+        }
+
+        public int calls() {
+            return calls;
+        }
+    }
+}
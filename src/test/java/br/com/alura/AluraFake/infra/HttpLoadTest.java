@@ -0,0 +1,376 @@
+package br.com.alura.AluraFake.infra;
+
+import br.com.alura.AluraFake.AluraFakeApplication;
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.infra.LoadScenario.Operation;
+import br.com.alura.AluraFake.shared.CourseFactory;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the authoring and reading endpoints over HTTP with the operation mixes of {@link LoadScenario},
+ * to find the throughput the application sustains on a single box.
+ *
+ * <p>Each scenario starts the application against a MySQL container shared by the scenarios when Docker is
+ * available, so the run needs no database of its own. Without Docker, it falls back to the database of the
+ * {@code test} profile, as the other tests do. It seeds instructors with published courses to read,
+ * courses in building to receive tasks and courses ready to be published.
+ * Requests then arrive at a fixed rate, whether or not the previous ones were answered (an open model),
+ * each on its own virtual thread. Latency is measured from the moment a request was due rather than from
+ * when it was actually sent, so a stalled server shows up in the percentiles instead of silently lowering
+ * the offered load.</p>
+ *
+ * <p>The run is tuned with system properties: {@code load.rate} (requests per second),
+ * {@code load.warmup} and {@code load.duration} (ISO-8601 durations, e.g. {@code PT30S}),
+ * {@code load.instructors}, {@code load.courses-per-instructor} and {@code load.profiles}.
+ * Raising {@code load.rate} until the achieved rate stops following it, or the tail latencies take off,
+ * gives the throughput ceiling. Percentiles of every endpoint are printed and written as {@code .hgrm}
+ * files under {@code target/load-reports}, which HdrHistogram's plotter reads.</p>
+ *
+ * <p>Tagged {@value VirtualThreadsLoadTest#LOAD}, which the default build skips:
+ * {@code mvn -Pload-test test -Dtest=HttpLoadTest -Dload.rate=100}.</p>
+ */
+@Tag(VirtualThreadsLoadTest.LOAD)
+class HttpLoadTest {
+
+    /**
+     * Null without Docker, in which case the scenarios run against the {@code test} profile data source.
+     */
+    private static final MySQLContainer<?> MYSQL = DockerClientFactory.instance().isDockerAvailable()
+            ? new MySQLContainer<>("mysql:8.0").withUrlParam("rewriteBatchedStatements", "true")
+            : null;
+
+    private static final int RATE = Integer.getInteger("load.rate", 40);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT20S"));
+    private static final int INSTRUCTORS = Integer.getInteger("load.instructors", 20);
+    private static final int COURSES_PER_INSTRUCTOR = Integer.getInteger("load.courses-per-instructor", 5);
+    private static final String PROFILES = System.getProperty("load.profiles", "test");
+
+    private static final String EMAIL_DOMAIN = "@http-load.test";
+    private static final Path REPORTS = Path.of("target", "load-reports");
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeAll
+    static void startDatabase() {
+        if (MYSQL != null) {
+            MYSQL.start();
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (MYSQL != null) {
+            MYSQL.stop();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(LoadScenario.class)
+    void scenario__should_be_served_without_failures_at_the_offered_rate(LoadScenario scenario) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AluraFakeApplication.class)
+                .properties("spring.profiles.active=" + PROFILES, "server.port=0", "spring.jpa.show-sql=false")
+                .run(dataSourceArgs())) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            try {
+                Dataset dataset = seed(context, scenario);
+
+                run(scenario, new Target(baseUrl, dataset), WARMUP);
+                RunResult result = run(scenario, new Target(baseUrl, dataset), DURATION);
+
+                result.print(scenario);
+                result.write(REPORTS.resolve(scenario.name().toLowerCase()));
+                assertThat(result.failures()).as(result::describeFailures).isEmpty();
+            } finally {
+                jdbcTemplate.update("DELETE c FROM Course c JOIN User u ON u.id = c.instructor_id WHERE u.email LIKE ?", "%" + EMAIL_DOMAIN);
+                jdbcTemplate.update("DELETE FROM User WHERE email LIKE ?", "%" + EMAIL_DOMAIN);
+            }
+        }
+    }
+
+    private static String[] dataSourceArgs() {
+        if (MYSQL == null) {
+            return new String[0];
+        }
+        return new String[]{
+                "--spring.datasource.url=" + MYSQL.getJdbcUrl(),
+                "--spring.datasource.username=" + MYSQL.getUsername(),
+                "--spring.datasource.password=" + MYSQL.getPassword()
+        };
+    }
+
+    /**
+     * Courses ready to publish are consumed by the publish requests, so there are enough of them for
+     * half again as many as the scenario is expected to send in the warmup and the measured run.
+     */
+    private static Dataset seed(ConfigurableApplicationContext context, LoadScenario scenario) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        CourseRepository courseRepository = context.getBean(CourseRepository.class);
+
+        List<User> instructors = new ArrayList<>();
+        for (int index = 0; index < INSTRUCTORS; index++) {
+            instructors.add(userRepository.save(new User("Instructor " + index, "instructor" + index + EMAIL_DOMAIN, Role.INSTRUCTOR)));
+        }
+
+        List<Long> publishedCourseIds = new ArrayList<>();
+        List<Long> buildingCourseIds = new ArrayList<>();
+        for (User instructor : instructors) {
+            for (int index = 0; index < COURSES_PER_INSTRUCTOR; index++) {
+                Course published = CourseFactory.createCourseReadyToPublish("Published " + index, "Curso publicado", instructor);
+                published.publish();
+                publishedCourseIds.add(courseRepository.save(published).getId());
+                buildingCourseIds.add(courseRepository.save(new Course("Building " + index, "Curso em construção", instructor)).getId());
+            }
+        }
+
+        double expectedPublications = scenario.share(Operation.PUBLISH_COURSE) * RATE * (WARMUP.toSeconds() + DURATION.toSeconds());
+        Queue<Long> readyCourseIds = new ConcurrentLinkedQueue<>();
+        for (int index = 0; index < Math.ceil(expectedPublications * 1.5); index++) {
+            User instructor = instructors.get(index % instructors.size());
+            readyCourseIds.add(courseRepository.save(CourseFactory.createCourseReadyToPublish("Ready " + index, "Curso pronto", instructor)).getId());
+        }
+
+        return new Dataset(instructors.stream().map(User::getId).toList(), publishedCourseIds, buildingCourseIds, readyCourseIds);
+    }
+
+    /**
+     * Sends one request every {@code 1 / load.rate} seconds for {@code duration}, then waits for the
+     * outstanding ones. The scheduling thread only parks until the next due time and hands the request
+     * over, so it keeps the rate even when the server falls behind.
+     */
+    private RunResult run(LoadScenario scenario, Target target, Duration duration) {
+        RunResult result = new RunResult();
+        SplittableRandom random = new SplittableRandom();
+        long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long startedAt = System.nanoTime();
+        long endsAt = startedAt + duration.toNanos();
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long dueAt = startedAt; dueAt < endsAt; dueAt += interval) {
+                long wait = dueAt - System.nanoTime();
+                while (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    wait = dueAt - System.nanoTime();
+                }
+
+                Operation operation = scenario.next(random);
+                SplittableRandom requestRandom = random.split();
+                long intendedAt = dueAt;
+                requests.execute(() -> result.record(operation, intendedAt, send(target, operation, requestRandom)));
+            }
+        }
+        result.finish(System.nanoTime() - startedAt);
+        return result;
+    }
+
+    /**
+     * @return {@code null} when the expected status came back, otherwise a description of the failure
+     */
+    private String send(Target target, Operation operation, SplittableRandom random) {
+        try {
+            HttpRequest request = switch (operation) {
+                case CREATE_COURSE -> target.createCourse(random, sequence.incrementAndGet());
+                case ADD_TASK -> target.addTask(random, sequence.incrementAndGet());
+                case PUBLISH_COURSE -> target.publishCourse();
+                case READ_COURSE -> target.readCourse(random);
+                case INSTRUCTOR_REPORT -> target.instructorReport(random);
+            };
+            if (request == null) {
+                return "no course left to publish";
+            }
+
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            int expected = operation == Operation.CREATE_COURSE ? 201 : 200;
+            return status == expected ? null : "status " + status;
+        } catch (IOException ex) {
+            return ex.toString();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return ex.toString();
+        }
+    }
+
+    private record Dataset(List<Long> instructorIds, List<Long> publishedCourseIds, List<Long> buildingCourseIds, Queue<Long> readyCourseIds) {
+    }
+
+    private record Target(String baseUrl, Dataset dataset) {
+
+        HttpRequest createCourse(SplittableRandom random, long sequence) {
+            int instructor = random.nextInt(dataset.instructorIds().size());
+            return post("/course/new", "{\"title\": \"Load course " + sequence + "\", \"description\": \"Curso criado sob carga\","
+                    + " \"emailInstructor\": \"instructor" + instructor + EMAIL_DOMAIN + "\"}");
+        }
+
+        /**
+         * Rotates through the three task types, every task at the head of the course, the most contended position.
+         */
+        HttpRequest addTask(SplittableRandom random, long sequence) {
+            Long courseId = pick(random, dataset.buildingCourseIds());
+            String prefix = "{\"courseId\": " + courseId + ", \"statement\": \"Load task " + sequence + "\", \"order\": 1";
+            return switch ((int) (sequence % 3)) {
+                case 0 -> post("/task/new/opentext", prefix + "}");
+                case 1 -> post("/task/new/singlechoice", prefix
+                        + ", \"options\": [{\"option\": \"Correct\", \"isCorrect\": true}, {\"option\": \"Wrong\", \"isCorrect\": false}]}");
+                default -> post("/task/new/multiplechoice", prefix
+                        + ", \"options\": [{\"option\": \"Correct\", \"isCorrect\": true}, {\"option\": \"Also correct\", \"isCorrect\": true},"
+                        + " {\"option\": \"Wrong\", \"isCorrect\": false}]}");
+            };
+        }
+
+        HttpRequest publishCourse() {
+            Long courseId = dataset.readyCourseIds().poll();
+            return courseId == null ? null : post("/course/" + courseId + "/publish", "");
+        }
+
+        HttpRequest readCourse(SplittableRandom random) {
+            return get("/course/" + pick(random, dataset.publishedCourseIds()));
+        }
+
+        HttpRequest instructorReport(SplittableRandom random) {
+            return get("/instructor/" + pick(random, dataset.instructorIds()) + "/courses");
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        }
+
+        private HttpRequest post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private static Long pick(SplittableRandom random, List<Long> ids) {
+            return ids.get(random.nextInt(ids.size()));
+        }
+    }
+
+    /**
+     * Latencies in microseconds, one histogram per operation, recorded from concurrent request threads.
+     */
+    private static class RunResult {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> failureCounts = new EnumMap<>(Operation.class);
+        private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        private double seconds;
+
+        RunResult() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+                failureCounts.put(operation, new LongAdder());
+            }
+        }
+
+        void record(Operation operation, long intendedAt, String failure) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedAt);
+            latencies.get(operation).recordValue(Math.min(Math.max(micros, 1), HIGHEST_TRACKABLE_MICROS));
+            if (failure != null) {
+                failureCounts.get(operation).increment();
+                failures.add(operation.endpoint() + ": " + failure);
+            }
+        }
+
+        void finish(long elapsedNanos) {
+            seconds = elapsedNanos / 1e9;
+        }
+
+        Queue<String> failures() {
+            return failures;
+        }
+
+        String describeFailures() {
+            return "failed requests, first ones:\n  " + String.join("\n  ", failures.stream().limit(10).toList());
+        }
+
+        Histogram overall() {
+            Histogram overall = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            latencies.values().forEach(overall::add);
+            return overall;
+        }
+
+        void print(LoadScenario scenario) {
+            System.out.printf("%s at %d req/s offered%n", scenario, RATE);
+            System.out.printf("%-30s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                    "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            latencies.forEach((operation, histogram) ->
+                    printRow(operation.endpoint(), histogram, failureCounts.get(operation).sum()));
+            printRow("all", overall(), failures.size());
+        }
+
+        private void printRow(String name, Histogram histogram, long errors) {
+            System.out.printf("%-30s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, histogram.getTotalCount(), errors,
+                    histogram.getTotalCount() / seconds, millisAt(histogram, 50), millisAt(histogram, 90),
+                    millisAt(histogram, 99), millisAt(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+        }
+
+        private static double millisAt(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        /**
+         * Writes the percentile distribution of each operation, and of all of them, in milliseconds.
+         */
+        void write(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            for (Map.Entry<Operation, Histogram> latency : latencies.entrySet()) {
+                write(directory.resolve(latency.getKey().name().toLowerCase() + ".hgrm"), latency.getValue());
+            }
+            write(directory.resolve("all.hgrm"), overall());
+        }
+
+        private static void write(Path file, Histogram histogram) throws IOException {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.alura.AluraFake.infra;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reserves blocks on a row of its own in the {@code IdAllocation} table of the test database.
+ * Reservations are autocommitted on connections of their own, so the row is committed rather than
+ * written in a test-managed transaction, which would hold its lock.
+ */
+@JdbcTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdAllocationGeneratorTest {
+
+    private static final String ENTITY_NAME = "IdAllocationGeneratorTest";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO IdAllocation (entity_name, next_id) VALUES (?, 10)", ENTITY_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM IdAllocation WHERE entity_name = ?", ENTITY_NAME);
+    }
+
+    @Test
+    void generate__should_hand_out_consecutive_ids_reserving_a_block_when_the_previous_one_runs_out() {
+        IdAllocationGenerator generator = new IdAllocationGenerator(ENTITY_NAME, 10, dataSource);
+
+        List<Object> ids = new ArrayList<>();
+        for (int index = 0; index < 11; index++) {
+            ids.add(generator.generate(null, null));
+        }
+
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+        assertThat(nextId()).isEqualTo(30L);
+    }
+
+    @Test
+    void generate__should_not_hand_out_ids_of_a_block_reserved_by_another_generator() {
+        IdAllocationGenerator generator = new IdAllocationGenerator(ENTITY_NAME, 10, dataSource);
+        IdAllocationGenerator otherGenerator = new IdAllocationGenerator(ENTITY_NAME, 10, dataSource);
+
+        assertThat(generator.generate(null, null)).isEqualTo(1L);
+        assertThat(otherGenerator.generate(null, null)).isEqualTo(11L);
+        assertThat(generator.generate(null, null)).isEqualTo(2L);
+    }
+
+    @Test
+    void generate__should_fail_when_the_entity_has_no_row() {
+        IdAllocationGenerator generator = new IdAllocationGenerator("Unknown", 10, dataSource);
+
+        assertThatThrownBy(() -> generator.generate(null, null)).hasMessageContaining("Unknown");
+    }
+
+    private Long nextId() {
+        return jdbcTemplate.queryForObject("SELECT next_id FROM IdAllocation WHERE entity_name = ?", Long.class, ENTITY_NAME);
+    }
+}
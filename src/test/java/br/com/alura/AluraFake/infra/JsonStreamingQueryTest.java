@@ -0,0 +1,123 @@
+package br.com.alura.AluraFake.infra;
+
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserListItemDTO;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureJson
+@Import(JsonStreamingQuery.class)
+class JsonStreamingQueryTest {
+
+    /**
+     * Tests with this tag only run with the {@code constant-memory-test} profile, in a separate surefire
+     * execution with a small heap (see pom.xml), where materializing their result would not fit.
+     */
+    static final String CONSTANT_MEMORY = "constant-memory";
+
+    private static final String USERS_SQL = "SELECT id, name, email, role FROM User WHERE email LIKE '%@stream.test' ORDER BY id";
+
+    @Autowired
+    private JsonStreamingQuery jsonStreamingQuery;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void streamArray__should_write_every_row_as_an_array_element() throws Exception {
+        userRepository.save(new User("Caio", "caio@stream.test", Role.STUDENT));
+        userRepository.save(new User("Paulo", "paulo@stream.test", Role.INSTRUCTOR));
+        userRepository.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jsonStreamingQuery.streamArray(USERS_SQL, UserListItemDTO::fromRow).writeTo(output);
+
+        assertThat(output.toString())
+                .startsWith("[{")
+                .contains("\"name\":\"Caio\"", "\"email\":\"paulo@stream.test\"", "\"role\":\"INSTRUCTOR\"")
+                .endsWith("}]");
+    }
+
+    @Test
+    void streamArray__should_write_an_empty_array_when_there_are_no_rows() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jsonStreamingQuery.streamArray(USERS_SQL, UserListItemDTO::fromRow).writeTo(output);
+
+        assertThat(output.toString()).isEqualTo("[]");
+    }
+
+    @Test
+    @Tag(CONSTANT_MEMORY)
+    void streamArray__should_stream_a_million_rows_with_constant_memory() throws Exception {
+        insertSyntheticUsers(6);
+
+        CountingOutputStream output = new CountingOutputStream();
+        jsonStreamingQuery.streamArray(USERS_SQL, UserListItemDTO::fromRow).writeTo(output);
+
+        assertThat(output.objects).isEqualTo(1_000_000);
+        assertThat(output.bytes).isGreaterThan(Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * Inserts {@code 10^digits} users in a single statement, numbering them from a cross join of digit tables.
+     */
+    private void insertSyntheticUsers(int digits) {
+        String digitTable = "(SELECT 0 AS d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 " +
+                "UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+        String number = IntStream.range(0, digits)
+                .mapToObj(position -> "d" + position + ".d * " + (long) Math.pow(10, position))
+                .collect(Collectors.joining(" + "));
+        String numbers = IntStream.range(0, digits)
+                .mapToObj(position -> digitTable + " d" + position)
+                .collect(Collectors.joining(" CROSS JOIN "));
+
+        jdbcTemplate.update("INSERT INTO User (id, name, email, role, password) " +
+                "SELECT 100000000 + n, CONCAT('Synthetic user ', n), CONCAT('user', n, '@stream.test'), 'STUDENT', '123456' " +
+                "FROM (SELECT " + number + " AS n FROM " + numbers + ") numbers");
+    }
+
+    /**
+     * Discards the response, keeping only its size and how many JSON objects it had.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+        private long objects;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '{') {
+                objects++;
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int index = offset; index < offset + length; index++) {
+                if (buffer[index] == '{') {
+                    objects++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.alura.AluraFake.infra;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Mixes of operations sent by {@link HttpLoadTest}, as relative weights.
+ */
+enum LoadScenario {
+
+    AUTHORING_HEAVY(Map.of(
+            LoadScenario.Operation.CREATE_COURSE, 15,
+            LoadScenario.Operation.ADD_TASK, 45,
+            LoadScenario.Operation.PUBLISH_COURSE, 5,
+            LoadScenario.Operation.READ_COURSE, 20,
+            LoadScenario.Operation.INSTRUCTOR_REPORT, 15)),
+
+    READ_HEAVY(Map.of(
+            LoadScenario.Operation.CREATE_COURSE, 2,
+            LoadScenario.Operation.ADD_TASK, 8,
+            LoadScenario.Operation.PUBLISH_COURSE, 2,
+            LoadScenario.Operation.READ_COURSE, 58,
+            LoadScenario.Operation.INSTRUCTOR_REPORT, 30));
+
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+
+    LoadScenario(Map<Operation, Integer> weights) {
+        this.weights = new EnumMap<>(weights);
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    Operation next(RandomGenerator random) {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights of " + this + " don't add up");
+    }
+
+    /**
+     * Share of the requests of the scenario that are {@code operation}.
+     */
+    double share(Operation operation) {
+        return weights.getOrDefault(operation, 0) / (double) totalWeight;
+    }
+
+    enum Operation {
+        CREATE_COURSE("POST /course/new"),
+        ADD_TASK("POST /task/new/*"),
+        PUBLISH_COURSE("POST /course/{id}/publish"),
+        READ_COURSE("GET /course/{id}"),
+        INSTRUCTOR_REPORT("GET /instructor/{id}/courses");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.alura.AluraFake.infra;
+
+import br.com.alura.AluraFake.user.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The replica points at the test database itself, which is enough to check that read-only
+ * transactions of the application borrow from the replica pool and writes don't.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "alurafake.datasource.replica.url=${spring.datasource.url}"
+})
+class ReadReplicaConfigurationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void dataSource__should_route_read_only_transactions_to_the_replica_pool() {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> userRepository.count());
+        assertThat(replicaDataSource.getHikariPoolMXBean()).isNull();
+
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> userRepository.count());
+        assertThat(replicaDataSource.getHikariPoolMXBean()).isNotNull();
+        assertThat(replicaDataSource.getPoolName()).isEqualTo("replica");
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.alura.AluraFake.infra;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Routes between two databases of the test server, standing for the primary and the replica
+ * instances, and checks which one answered each query. The replica database sits next to the
+ * one of the {@code test} profile, under the same credentials.
+ */
+@JdbcTest(properties = "spring.profiles.active=test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Pattern DATABASE_IN_URL = Pattern.compile("(jdbc:mysql://[^/]+/)([^?]+)(.*)");
+
+    @Autowired
+    private DataSource primary;
+
+    @Autowired
+    private DataSourceProperties properties;
+
+    private final Clock clock = mock(Clock.class);
+
+    private String primaryDatabase;
+    private String replicaDatabase;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        Matcher url = DATABASE_IN_URL.matcher(properties.determineUrl());
+        assertThat(url.matches()).as("database name in %s", properties.determineUrl()).isTrue();
+        primaryDatabase = url.group(2);
+        replicaDatabase = primaryDatabase + "_replica";
+        new JdbcTemplate(primary).execute("CREATE DATABASE IF NOT EXISTS " + replicaDatabase);
+        replica = new DriverManagerDataSource(url.group(1) + replicaDatabase + url.group(3),
+                properties.determineUsername(), properties.determinePassword());
+        when(clock.instant()).thenReturn(Instant.parse("2026-01-01T10:00:00Z"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getConnection__should_serve_read_only_transactions_from_the_replica() {
+        Routing routing = new Routing(replica);
+
+        assertThat(routing.databaseInTransaction(true)).isEqualTo(replicaDatabase);
+    }
+
+    @Test
+    void getConnection__should_serve_read_write_transactions_and_plain_statements_from_the_primary() {
+        Routing routing = new Routing(replica);
+
+        assertThat(routing.databaseInTransaction(false)).isEqualTo(primaryDatabase);
+        assertThat(routing.jdbcTemplate.queryForObject("SELECT DATABASE()", String.class)).isEqualTo(primaryDatabase);
+    }
+
+    @Test
+    void getConnection__should_fall_back_to_the_primary_and_leave_the_replica_alone_for_the_retry_delay() throws Exception {
+        DataSource unreachableReplica = spy(new DriverManagerDataSource("jdbc:mysql://localhost:1/alurafake?connectTimeout=500",
+                properties.determineUsername(), properties.determinePassword()));
+        Routing routing = new Routing(unreachableReplica);
+
+        assertThat(routing.databaseInTransaction(true)).isEqualTo(primaryDatabase);
+        assertThat(routing.databaseInTransaction(true)).isEqualTo(primaryDatabase);
+        verify(unreachableReplica, times(1)).getConnection();
+
+        when(clock.instant()).thenReturn(Instant.parse("2026-01-01T10:00:31Z"));
+        assertThat(routing.databaseInTransaction(true)).isEqualTo(primaryDatabase);
+        verify(unreachableReplica, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection__should_serve_read_only_transactions_from_the_primary_in_the_read_your_writes_window() throws Exception {
+        Routing routing = new Routing(replica);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/instructor/1/courses");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "1"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        AtomicReference<String> database = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                database.set(routing.databaseInTransaction(true));
+            }
+        });
+        new ReadYourWritesFilter(Duration.ofSeconds(5)).doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(database).hasValue(primaryDatabase);
+    }
+
+    private class Routing {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+
+        Routing(DataSource replica) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(
+                    new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(30), clock));
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        String databaseInTransaction(boolean readOnly) {
+            transactionTemplate.setReadOnly(readOnly);
+            return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+        }
+    }
+}
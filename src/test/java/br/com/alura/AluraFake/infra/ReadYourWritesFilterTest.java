@@ -0,0 +1,74 @@
+package br.com.alura.AluraFake.infra;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void doFilter__should_open_the_window_on_writes() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(readsOwnWrites(filter, new MockHttpServletRequest("POST", "/course/new"), response)).isTrue();
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE))
+                .startsWith(ReadYourWritesFilter.COOKIE_NAME + "=1")
+                .contains("Max-Age=5", "Path=/", "HttpOnly");
+    }
+
+    @Test
+    void doFilter__should_read_own_writes_while_the_cookie_lives() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/course/all");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "1"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(readsOwnWrites(filter, request, response)).isTrue();
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void doFilter__should_let_reads_of_other_clients_go_to_the_replica() throws Exception {
+        assertThat(readsOwnWrites(filter, new MockHttpServletRequest("GET", "/course/all"), new MockHttpServletResponse())).isFalse();
+    }
+
+    @Test
+    void doFilter__should_do_nothing_when_the_window_is_zero() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(readsOwnWrites(new ReadYourWritesFilter(Duration.ZERO), new MockHttpServletRequest("POST", "/course/new"), response)).isFalse();
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    private static boolean readsOwnWrites(ReadYourWritesFilter filter, MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        AtomicBoolean readsOwnWrites = new AtomicBoolean();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                readsOwnWrites.set(ReadYourWritesFilter.isReadingOwnWrites());
+            }
+        }));
+        return readsOwnWrites.get();
+    }
+}
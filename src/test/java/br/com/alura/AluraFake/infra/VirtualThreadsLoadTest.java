@@ -0,0 +1,226 @@
+package br.com.alura.AluraFake.infra;
+
+import br.com.alura.AluraFake.AluraFakeApplication;
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.shared.CourseFactory;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the application on platform threads with the {@code virtual-threads} profile, under
+ * {@value #CLIENTS} concurrent clients reading a published course and adding tasks to a few hot courses.
+ *
+ * <p>Each run starts the application against the {@code test} database, so the numbers include the real
+ * driver and pool. While the virtual thread run is served, a JFR stream records every
+ * {@code jdk.VirtualThreadPinned} event: a virtual thread blocking inside a {@code synchronized} block
+ * holds its carrier, and a handful of those is enough to stall the whole carrier pool.</p>
+ *
+ * <p>Tagged {@value #LOAD}, which the default build skips: {@code mvn -Pload-test test}.</p>
+ */
+@Tag(VirtualThreadsLoadTest.LOAD)
+class VirtualThreadsLoadTest {
+
+    static final String LOAD = "load";
+
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 5;
+    private static final int HOT_COURSES = 10;
+    private static final String INSTRUCTOR_EMAIL = "instructor@load.test";
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    @Test
+    void virtual_threads__should_serve_concurrent_clients_without_pinning_carrier_threads() throws Exception {
+        LoadReport platformThreads = runAgainst("test");
+
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        LoadReport virtualThreads;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent(PINNED_EVENT, pinnedEvents::add);
+            recording.startAsync();
+            virtualThreads = runAgainst("test,virtual-threads");
+            recording.stop();
+        }
+
+        System.out.printf("%-18s %-22s %10s %10s %10s %10s%n", "threads", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms");
+        platformThreads.print("platform");
+        virtualThreads.print("virtual");
+
+        assertThat(platformThreads.failures()).isZero();
+        assertThat(virtualThreads.failures()).isZero();
+        assertThat(pinnedEvents).as(() -> "carrier threads pinned at:\n" + describe(pinnedEvents)).isEmpty();
+    }
+
+    private LoadReport runAgainst(String profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AluraFakeApplication.class)
+                .properties("spring.profiles.active=" + profiles, "server.port=0", "spring.jpa.show-sql=false")
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            try {
+                User instructor = context.getBean(UserRepository.class).save(new User("Paulo", INSTRUCTOR_EMAIL, Role.INSTRUCTOR));
+                CourseRepository courseRepository = context.getBean(CourseRepository.class);
+
+                Course published = CourseFactory.createCourseReadyToPublish("Java", "Curso de Java", instructor);
+                published.publish();
+                Long publishedId = courseRepository.save(published).getId();
+                List<Long> hotCourseIds = new ArrayList<>();
+                for (int index = 0; index < HOT_COURSES; index++) {
+                    hotCourseIds.add(courseRepository.save(new Course("Hot " + index, "Curso disputado", instructor)).getId());
+                }
+
+                PhaseResult reads = runPhase("GET /course/{id}",
+                        (clientIndex, requestIndex) -> HttpRequest.newBuilder(URI.create(baseUrl + "/course/" + publishedId)).GET().build());
+                PhaseResult writes = runPhase("POST /task/new/*",
+                        (clientIndex, requestIndex) -> newTaskRequest(baseUrl, hotCourseIds.get(clientIndex % HOT_COURSES), clientIndex, requestIndex));
+                return new LoadReport(List.of(reads, writes));
+            } finally {
+                jdbcTemplate.update("DELETE c FROM Course c JOIN User u ON u.id = c.instructor_id WHERE u.email = ?", INSTRUCTOR_EMAIL);
+                jdbcTemplate.update("DELETE FROM User WHERE email = ?", INSTRUCTOR_EMAIL);
+            }
+        }
+    }
+
+    /**
+     * Every client sends its requests one after the other, all clients starting at once.
+     */
+    private PhaseResult runPhase(String name, RequestFactory requests) throws Exception {
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        long startedAt;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int clientIndex = 0; clientIndex < CLIENTS; clientIndex++) {
+                int clientNumber = clientIndex;
+                clients.execute(() -> {
+                    try {
+                        start.await();
+                        for (int requestIndex = 0; requestIndex < REQUESTS_PER_CLIENT; requestIndex++) {
+                            long sentAt = System.nanoTime();
+                            int status = client.send(requests.create(clientNumber, requestIndex), HttpResponse.BodyHandlers.discarding()).statusCode();
+                            latencies[recorded.getAndIncrement()] = System.nanoTime() - sentAt;
+                            if (status != 200) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception ex) {
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+            startedAt = System.nanoTime();
+            start.countDown();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        long[] completed = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(completed);
+        return new PhaseResult(name, completed, seconds, failures.get());
+    }
+
+    /**
+     * Rotates through the three task types, every task at the head of the course, the most contended position.
+     */
+    private static HttpRequest newTaskRequest(String baseUrl, Long courseId, int clientIndex, int requestIndex) {
+        String statement = "Client " + clientIndex + " task " + requestIndex;
+        String path;
+        String options;
+        switch ((clientIndex + requestIndex) % 3) {
+            case 0 -> {
+                path = "/task/new/opentext";
+                options = "";
+            }
+            case 1 -> {
+                path = "/task/new/singlechoice";
+                options = ", \"options\": [{\"option\": \"Correct\", \"isCorrect\": true}, {\"option\": \"Wrong\", \"isCorrect\": false}]";
+            }
+            default -> {
+                path = "/task/new/multiplechoice";
+                options = ", \"options\": [{\"option\": \"Correct\", \"isCorrect\": true}, {\"option\": \"Also correct\", \"isCorrect\": true},"
+                        + " {\"option\": \"Wrong\", \"isCorrect\": false}]";
+            }
+        }
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"courseId\": " + courseId + ", \"statement\": \"" + statement + "\", \"order\": 1" + options + "}"))
+                .build();
+    }
+
+    private static String describe(List<RecordedEvent> pinnedEvents) {
+        return pinnedEvents.stream()
+                .limit(5)
+                .map(event -> event.getStackTrace().getFrames().stream()
+                        .limit(15)
+                        .map(RecordedFrame::toString)
+                        .collect(Collectors.joining("\n  ", "  ", "")))
+                .collect(Collectors.joining("\n---\n"));
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest create(int clientIndex, int requestIndex);
+    }
+
+    private record PhaseResult(String name, long[] sortedLatencies, double seconds, int failures) {
+
+        double millisAt(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+
+        void print(String threads) {
+            System.out.printf("%-18s %-22s %10.1f %10.1f %10.1f %10.1f%n", threads, name,
+                    sortedLatencies.length / seconds, millisAt(0.50), millisAt(0.99), millisAt(1.0));
+        }
+    }
+
+    private record LoadReport(List<PhaseResult> phases) {
+
+        int failures() {
+            return phases.stream().mapToInt(PhaseResult::failures).sum();
+        }
+
+        void print(String threads) {
+            phases.forEach(phase -> phase.print(threads));
+        }
+    }
+}
@@ -1,11 +1,8 @@
 package br.com.alura.AluraFake.instructor;
 
-import br.com.alura.AluraFake.course.CourseProjection;
-import br.com.alura.AluraFake.course.CourseRepository;
 import br.com.alura.AluraFake.course.Status;
-import br.com.alura.AluraFake.user.Role;
-import br.com.alura.AluraFake.user.User;
-import br.com.alura.AluraFake.user.UserRepository;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportQuery.UserCourseReport;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportResponseDTO.InstructorCourseReportItemDTO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -26,14 +23,11 @@ class InstructorControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private UserRepository userRepository;
-
-    @MockBean
-    private CourseRepository courseRepository;
+    private InstructorCourseReportQuery instructorCourseReportQuery;
 
     @Test
     void getInstructorCourseReport__should_return_not_found_when_user_does_not_exist() throws Exception {
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(instructorCourseReportQuery.findByUserId(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/instructor/999/courses"))
                 .andExpect(status().isNotFound());
@@ -41,8 +35,7 @@ class InstructorControllerTest {
 
     @Test
     void getInstructorCourseReport__should_return_bad_request_when_user_is_not_instructor() throws Exception {
-        User student = new User("Student", "student@alura.com", Role.STUDENT);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(student));
+        when(instructorCourseReportQuery.findByUserId(1L)).thenReturn(Optional.of(new UserCourseReport(false, null)));
 
         mockMvc.perform(get("/instructor/1/courses"))
                 .andExpect(status().isBadRequest())
@@ -52,9 +45,7 @@ class InstructorControllerTest {
 
     @Test
     void getInstructorCourseReport__should_return_empty_list_when_instructor_has_no_courses() throws Exception {
-        User instructor = new User("Instructor", "instructor@alura.com", Role.INSTRUCTOR);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(instructor));
-        when(courseRepository.findByInstructorIdWithTaskCount(1L)).thenReturn(Collections.emptyList());
+        mockReport(List.of(), 0);
 
         mockMvc.perform(get("/instructor/1/courses"))
                 .andExpect(status().isOk())
@@ -64,13 +55,7 @@ class InstructorControllerTest {
 
     @Test
     void getInstructorCourseReport__should_get_published_courses_by_instructor() throws Exception {
-        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(instructor));
-
-        List<CourseProjection> courses = List.of(
-            createMockProjection(1L, "Published", Status.PUBLISHED, LocalDateTime.now(), 3L)
-        );
-        when(courseRepository.findByInstructorIdWithTaskCount(1L)).thenReturn(courses);
+        mockReport(List.of(new InstructorCourseReportItemDTO(1L, "Published", Status.PUBLISHED, LocalDateTime.now(), 3)), 1);
 
         mockMvc.perform(get("/instructor/1/courses"))
                 .andExpect(status().isOk())
@@ -86,13 +71,7 @@ class InstructorControllerTest {
 
     @Test
     void getInstructorCourseReport__should_get_building_courses_by_instructor() throws Exception {
-        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(instructor));
-
-        List<CourseProjection> courses = List.of(
-                createMockProjection(1L, "Building", Status.BUILDING, LocalDateTime.now(), 3L)
-        );
-        when(courseRepository.findByInstructorIdWithTaskCount(1L)).thenReturn(courses);
+        mockReport(List.of(new InstructorCourseReportItemDTO(1L, "Building", Status.BUILDING, LocalDateTime.now(), 3)), 0);
 
         mockMvc.perform(get("/instructor/1/courses"))
                 .andExpect(status().isOk())
@@ -105,15 +84,9 @@ class InstructorControllerTest {
                 .andExpect(jsonPath("$.totalPublishedCourses").value(0));
     }
 
-    private CourseProjection createMockProjection(Long id, String title, Status status, LocalDateTime publishedAt, Long taskCount) {
-        CourseProjection projection = mock(CourseProjection.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
-        doReturn(id).when(projection).getId();
-        doReturn(title).when(projection).getTitle();
-        doReturn("Description for " + title).when(projection).getDescription();
-        doReturn(status).when(projection).getStatus();
-        doReturn(publishedAt).when(projection).getPublishedAt();
-        doReturn(taskCount).when(projection).getTaskCount();
-        return projection;
+    private void mockReport(List<InstructorCourseReportItemDTO> courses, long totalPublishedCourses) {
+        when(instructorCourseReportQuery.findByUserId(1L))
+                .thenReturn(Optional.of(new UserCourseReport(true, new InstructorCourseReportResponseDTO(courses, totalPublishedCourses))));
     }
 
-}
\ No newline at end of file
+}
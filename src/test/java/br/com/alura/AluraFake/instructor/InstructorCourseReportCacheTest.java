@@ -0,0 +1,216 @@
+package br.com.alura.AluraFake.instructor;
+
+import br.com.alura.AluraFake.course.CourseChangedEvent;
+import br.com.alura.AluraFake.infra.CacheConfiguration;
+import br.com.alura.AluraFake.infra.ReadWriteRoutingDataSource;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportQuery.UserCourseReport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfiguration.class, InstructorCourseReportQuery.class, InstructorCourseReportCacheTest.TransactionConfiguration.class})
+@ImportAutoConfiguration({CacheAutoConfiguration.class, TransactionAutoConfiguration.class, MetricsAutoConfiguration.class,
+        SimpleMetricsExportAutoConfiguration.class, CompositeMeterRegistryAutoConfiguration.class, CacheMetricsAutoConfiguration.class})
+class InstructorCourseReportCacheTest {
+
+    @Autowired
+    private InstructorCourseReportQuery instructorCourseReportQuery;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(InstructorCourseReportQuery.INSTRUCTOR_COURSE_REPORT_CACHE).clear();
+    }
+
+    @Test
+    void findByUserId__should_read_the_report_of_an_instructor_from_the_database_only_once() {
+        double hitsBefore = gets("hit");
+        mockReport(1L, true);
+
+        Optional<UserCourseReport> first = instructorCourseReportQuery.findByUserId(1L);
+        Optional<UserCourseReport> second = instructorCourseReportQuery.findByUserId(1L);
+
+        assertThat(second).isEqualTo(first);
+        verifyQueries(1L, 1);
+        assertThat(gets("hit")).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void findByUserId__should_not_cache_users_that_are_not_instructors_or_do_not_exist() {
+        mockReport(2L, false);
+        when(jdbcTemplate.query(anyString(), anyReportExtractor(), eq(3L))).thenReturn(Optional.empty());
+
+        instructorCourseReportQuery.findByUserId(2L);
+        instructorCourseReportQuery.findByUserId(2L);
+        instructorCourseReportQuery.findByUserId(3L);
+        instructorCourseReportQuery.findByUserId(3L);
+
+        verifyQueries(2L, 2);
+        verifyQueries(3L, 2);
+    }
+
+    @Test
+    void findByUserId__should_not_cache_reports_read_from_the_replica() throws Exception {
+        mockReport(1L, true);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(mock(Connection.class));
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(mock(DataSource.class), replica, Duration.ofSeconds(30));
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+
+        for (int read = 0; read < 2; read++) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Connection connection = routing.getConnection()) {
+                    instructorCourseReportQuery.findByUserId(1L);
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        }
+        instructorCourseReportQuery.findByUserId(1L);
+        instructorCourseReportQuery.findByUserId(1L);
+
+        verifyQueries(1L, 3);
+    }
+
+    @Test
+    void onCourseChanged__should_evict_the_report_of_the_instructor_once_the_change_is_committed() {
+        mockReport(1L, true);
+        mockReport(4L, true);
+        instructorCourseReportQuery.findByUserId(1L);
+        instructorCourseReportQuery.findByUserId(4L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new CourseChangedEvent(10L, 1L));
+            instructorCourseReportQuery.findByUserId(1L);
+            verifyQueries(1L, 1);
+        });
+        instructorCourseReportQuery.findByUserId(1L);
+        instructorCourseReportQuery.findByUserId(4L);
+
+        verifyQueries(1L, 2);
+        verifyQueries(4L, 1);
+    }
+
+    @Test
+    void onCourseChanged__should_keep_the_report_when_the_change_is_rolled_back() {
+        mockReport(1L, true);
+        instructorCourseReportQuery.findByUserId(1L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new CourseChangedEvent(10L, 1L));
+            status.setRollbackOnly();
+        });
+        instructorCourseReportQuery.findByUserId(1L);
+
+        verifyQueries(1L, 1);
+    }
+
+    @Test
+    void onCourseChanged__should_evict_right_away_outside_a_transaction() {
+        mockReport(1L, true);
+        instructorCourseReportQuery.findByUserId(1L);
+
+        eventPublisher.publishEvent(new CourseChangedEvent(10L, 1L));
+        instructorCourseReportQuery.findByUserId(1L);
+
+        verifyQueries(1L, 2);
+    }
+
+    private void mockReport(Long userId, boolean instructor) {
+        UserCourseReport report = new UserCourseReport(instructor, instructor ? new InstructorCourseReportResponseDTO(List.of(), 0) : null);
+        when(jdbcTemplate.query(anyString(), anyReportExtractor(), eq(userId))).thenReturn(Optional.of(report));
+    }
+
+    private void verifyQueries(Long userId, int times) {
+        verify(jdbcTemplate, times(times)).query(anyString(), anyReportExtractor(), eq(userId));
+    }
+
+    private static ResultSetExtractor<Optional<UserCourseReport>> anyReportExtractor() {
+        return any();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", InstructorCourseReportQuery.INSTRUCTOR_COURSE_REPORT_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    /**
+     * A transaction manager without resources, enough to drive transaction synchronizations.
+     */
+    @TestConfiguration
+    static class TransactionConfiguration {
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new AbstractPlatformTransactionManager() {
+
+                @Override
+                protected Object doGetTransaction() {
+                    return new Object();
+                }
+
+                @Override
+                protected void doBegin(Object transaction, TransactionDefinition definition) {
+                }
+
+                @Override
+                protected void doCommit(DefaultTransactionStatus status) {
+                }
+
+                @Override
+                protected void doRollback(DefaultTransactionStatus status) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.alura.AluraFake.instructor;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.course.Status;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportQuery.UserCourseReport;
+import br.com.alura.AluraFake.instructor.InstructorCourseReportResponseDTO.InstructorCourseReportItemDTO;
+import br.com.alura.AluraFake.task.domain.OpenTextTask;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.com.alura.AluraFake.shared.CourseFactory.createCourseReadyToPublish;
+import static br.com.alura.AluraFake.shared.QueryPlans.assertUsesIndex;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(InstructorCourseReportQuery.class)
+class InstructorCourseReportQueryTest {
+
+    @Autowired
+    private InstructorCourseReportQuery instructorCourseReportQuery;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findByUserId__should_return_the_courses_of_the_instructor_with_the_published_count() {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        User otherInstructor = new User("Jane", "jane@alura.com", Role.INSTRUCTOR);
+        userRepository.saveAll(List.of(instructor, otherInstructor));
+        Course building = new Course("Java", "Java course", instructor);
+        new OpenTextTask(building, "What is Java?", 1);
+        Course published = createCourseReadyToPublish("Python", "Python course", instructor);
+        published.publish();
+        Course otherPublished = createCourseReadyToPublish("Go", "Go course", otherInstructor);
+        otherPublished.publish();
+        courseRepository.saveAll(List.of(building, published, otherPublished));
+        entityManager.flush();
+        entityManager.clear();
+
+        UserCourseReport userReport = instructorCourseReportQuery.findByUserId(instructor.getId()).orElseThrow();
+
+        assertThat(userReport.instructor()).isTrue();
+        InstructorCourseReportResponseDTO report = userReport.report();
+        assertThat(report.totalPublishedCourses()).isEqualTo(1);
+        assertThat(report.courses()).extracting(InstructorCourseReportItemDTO::id)
+                .containsExactly(building.getId(), published.getId());
+        InstructorCourseReportItemDTO buildingItem = report.courses().getFirst();
+        assertThat(buildingItem.title()).isEqualTo("Java");
+        assertThat(buildingItem.status()).isEqualTo(Status.BUILDING);
+        assertThat(buildingItem.publishedAt()).isNull();
+        assertThat(buildingItem.totalTasks()).isEqualTo(1);
+        InstructorCourseReportItemDTO publishedItem = report.courses().get(1);
+        assertThat(publishedItem.status()).isEqualTo(Status.PUBLISHED);
+        assertThat(publishedItem.publishedAt()).isNotNull();
+        assertThat(publishedItem.totalTasks()).isEqualTo(3);
+    }
+
+    @Test
+    void findByUserId__should_return_an_empty_report_when_instructor_has_no_courses() {
+        User instructor = userRepository.save(new User("No Courses", "nocourses@alura.com", Role.INSTRUCTOR));
+        entityManager.flush();
+
+        UserCourseReport userReport = instructorCourseReportQuery.findByUserId(instructor.getId()).orElseThrow();
+
+        assertThat(userReport.instructor()).isTrue();
+        assertThat(userReport.report().courses()).isEmpty();
+        assertThat(userReport.report().totalPublishedCourses()).isZero();
+    }
+
+    @Test
+    void findByUserId__should_not_report_courses_of_a_user_that_is_not_instructor() {
+        User student = userRepository.save(new User("Student", "student@alura.com", Role.STUDENT));
+        entityManager.flush();
+
+        UserCourseReport userReport = instructorCourseReportQuery.findByUserId(student.getId()).orElseThrow();
+
+        assertThat(userReport.instructor()).isFalse();
+        assertThat(userReport.report()).isNull();
+    }
+
+    @Test
+    void findByUserId__should_read_only_the_courses_of_the_instructor_through_an_index() {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        User otherInstructor = new User("Jane", "jane@alura.com", Role.INSTRUCTOR);
+        userRepository.saveAll(List.of(instructor, otherInstructor));
+        List<Course> courses = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            courses.add(new Course("Course " + index, "Description", index % 10 == 0 ? instructor : otherInstructor));
+        }
+        courseRepository.saveAll(courses);
+        entityManager.flush();
+
+        assertUsesIndex(jdbcTemplate, "IDX_Course_instructor_id_id", InstructorCourseReportQuery.REPORT_SQL, instructor.getId());
+    }
+
+    @Test
+    void findByUserId__should_return_empty_when_user_does_not_exist() {
+        assertThat(instructorCourseReportQuery.findByUserId(-1L)).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.alura.AluraFake.shared;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records the SQL Hibernate sends, so tests can {@code EXPLAIN} the statements of the real queries
+ * instead of hand-written copies. Enabled in a test context with {@link #STATEMENT_INSPECTOR}.
+ */
+public class QueryPlans implements StatementInspector {
+
+    public static final String STATEMENT_INSPECTOR = "spring.jpa.properties.hibernate.session_factory.statement_inspector=br.com.alura.AluraFake.shared.QueryPlans";
+
+    private static final Set<String> FULL_SCANS = Set.of("ALL", "index");
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static void clearStatements() {
+        statements.clear();
+    }
+
+    public static String lastStatement() {
+        assertThat(statements).as("statements sent by Hibernate").isNotEmpty();
+        return statements.getLast();
+    }
+
+    /**
+     * Fails when the plan reads any table in full, either its rows ({@code ALL}) or a whole index ({@code index}).
+     * Derived and temporary tables are not checked. {@code args} bind the placeholders of the statement, in order.
+     */
+    public static void assertNoFullTableScan(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+
+        assertThat(plan)
+                .as(() -> "plan of " + sql + "\n" + plan)
+                .isNotEmpty()
+                .noneMatch(step -> FULL_SCANS.contains(String.valueOf(step.get("type"))) && !String.valueOf(step.get("table")).startsWith("<"));
+    }
+
+    public static void assertUsesIndex(JdbcTemplate jdbcTemplate, String index, String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+
+        assertThat(plan)
+                .as(() -> "plan of " + sql + "\n" + plan)
+                .anyMatch(step -> index.equals(step.get("key")));
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.alura.AluraFake.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CourseTaskMailboxesTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final CourseTaskWriter courseTaskWriter = mock(CourseTaskWriter.class);
+
+    private final List<List<String>> appliedBatches = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch firstBatchReleased = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit__should_apply_insertions_queued_while_the_course_is_busy_in_a_single_batch() throws Exception {
+        CourseTaskMailboxes mailboxes = mailboxes(100);
+
+        CompletableFuture<TaskInsertionResult> first = mailboxes.submit(task(1L, "First"), null);
+        awaitBatches(1);
+        CompletableFuture<TaskInsertionResult> second = mailboxes.submit(task(1L, "Second"), null);
+        CompletableFuture<TaskInsertionResult> third = mailboxes.submit(task(1L, "Third"), "\"1-0\"");
+        firstBatchReleased.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("First");
+        assertThat(second.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Second");
+        assertThat(third.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Third \"1-0\"");
+        assertThat(appliedBatches).containsExactly(List.of("First"), List.of("Second", "Third"));
+    }
+
+    @Test
+    void submit__should_split_queued_insertions_by_the_maximum_batch_size() throws Exception {
+        CourseTaskMailboxes mailboxes = mailboxes(2);
+
+        List<CompletableFuture<TaskInsertionResult>> results = new ArrayList<>();
+        results.add(mailboxes.submit(task(1L, "Task 0"), null));
+        awaitBatches(1);
+        for (int index = 1; index < 5; index++) {
+            results.add(mailboxes.submit(task(1L, "Task " + index), null));
+        }
+        firstBatchReleased.countDown();
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(appliedBatches).containsExactly(List.of("Task 0"), List.of("Task 1", "Task 2"), List.of("Task 3", "Task 4"));
+    }
+
+    @Test
+    void submit__should_not_hold_insertions_of_a_course_behind_another_busy_course() throws Exception {
+        CourseTaskMailboxes mailboxes = mailboxes(100);
+
+        CompletableFuture<TaskInsertionResult> busy = mailboxes.submit(task(1L, "Busy course"), null);
+        awaitBatches(1);
+
+        assertThat(mailboxes.submit(task(2L, "Other course"), null).get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Other course");
+        assertThat(busy).isNotDone();
+        firstBatchReleased.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Busy course");
+    }
+
+    @Test
+    void insert__should_rethrow_the_failure_of_an_insertion_applied_on_its_own() {
+        CourseTaskMailboxes mailboxes = new CourseTaskMailboxes(courseTaskWriter, executor, 100, TIMEOUT);
+        when(courseTaskWriter.insertEach(eq(1L), any())).thenThrow(new ObjectOptimisticLockingFailureException(Object.class, 1L));
+
+        assertThatThrownBy(() -> mailboxes.insert(task(1L, "Conflicting"), null))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void submit__should_apply_the_insertions_of_a_failed_batch_one_by_one() throws Exception {
+        CourseTaskMailboxes mailboxes = mailboxes(100, "Failing");
+
+        CompletableFuture<TaskInsertionResult> first = mailboxes.submit(task(1L, "First"), null);
+        awaitBatches(1);
+        CompletableFuture<TaskInsertionResult> failing = mailboxes.submit(task(1L, "Failing"), null);
+        CompletableFuture<TaskInsertionResult> third = mailboxes.submit(task(1L, "Third"), null);
+        firstBatchReleased.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("First");
+        assertThat(third.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Third");
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(appliedBatches).containsExactly(List.of("First"), List.of("Failing", "Third"), List.of("Failing"), List.of("Third"));
+    }
+
+    @Test
+    void insert__should_answer_unavailable_when_the_course_stays_busy_past_the_timeout() throws Exception {
+        CourseTaskMailboxes mailboxes = mailboxes(100, Duration.ofMillis(100));
+
+        CompletableFuture<TaskInsertionResult> busy = mailboxes.submit(task(1L, "Busy course"), null);
+        awaitBatches(1);
+
+        assertThat(mailboxes.insert(task(1L, "Waiting"), null).status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        firstBatchReleased.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Busy course");
+        assertThat(mailboxes.submit(task(1L, "Later"), null).get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Later");
+        assertThat(appliedBatches).containsExactly(List.of("Busy course"), List.of("Later"));
+    }
+
+    @Test
+    void submit__should_wait_past_the_timeout_for_the_outcome_of_an_insertion_already_in_a_batch() throws Exception {
+        CourseTaskMailboxes mailboxes = mailboxes(100, Duration.ofMillis(100));
+
+        CompletableFuture<TaskInsertionResult> applying = mailboxes.submit(task(1L, "Applying"), null);
+        awaitBatches(1);
+        Thread.sleep(300);
+
+        assertThat(applying).isNotDone();
+        firstBatchReleased.countDown();
+        assertThat(applying.get(5, TimeUnit.SECONDS).eTag()).isEqualTo("Applying");
+    }
+
+    @Test
+    void insert__should_answer_unavailable_when_no_drainer_can_take_the_course() {
+        CourseTaskMailboxes mailboxes = new CourseTaskMailboxes(courseTaskWriter, command -> {
+            throw new RejectedExecutionException();
+        }, 100, TIMEOUT);
+
+        assertThat(mailboxes.insert(task(1L, "Rejected"), null).status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private CourseTaskMailboxes mailboxes(int maxBatchSize) {
+        return mailboxes(maxBatchSize, TIMEOUT, null);
+    }
+
+    private CourseTaskMailboxes mailboxes(int maxBatchSize, Duration timeout) {
+        return mailboxes(maxBatchSize, timeout, null);
+    }
+
+    private CourseTaskMailboxes mailboxes(int maxBatchSize, String failingStatement) {
+        return mailboxes(maxBatchSize, TIMEOUT, failingStatement);
+    }
+
+    /**
+     * The writer answers each command with its statement and {@code If-Match} as entity tag, and holds
+     * the first batch until released, so the following submissions queue up behind it.
+     * A batch with the failing statement, if any, fails as a whole.
+     */
+    private CourseTaskMailboxes mailboxes(int maxBatchSize, Duration timeout, String failingStatement) {
+        when(courseTaskWriter.insertEach(any(), any())).thenAnswer(invocation -> {
+            List<TaskInsertionCommand> commands = invocation.getArgument(1);
+            List<String> statements = commands.stream().map(command -> command.task().statement()).toList();
+            appliedBatches.add(statements);
+            if (appliedBatches.size() == 1) {
+                firstBatchReleased.await();
+            }
+            if (statements.contains(failingStatement)) {
+                throw new IllegalStateException("Failed to insert " + failingStatement);
+            }
+            return commands.stream()
+                    .map(command -> TaskInsertionResult.inserted(command.ifMatch() == null
+                            ? command.task().statement()
+                            : command.task().statement() + " " + command.ifMatch()))
+                    .toList();
+        });
+        return new CourseTaskMailboxes(courseTaskWriter, executor, maxBatchSize, timeout);
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (appliedBatches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(appliedBatches).hasSize(count);
+    }
+
+    private static NewOpenTextTaskDTO task(Long courseId, String statement) {
+        return new NewOpenTextTaskDTO(courseId, statement, 1);
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.alura.AluraFake.task;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insertions committed against the database, so the version written by the writer is the one that
+ * survives the flush of the course and its tasks.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=test",
+        "alurafake.conflict-retry.max-attempts=1"
+})
+class CourseTaskWriterTest {
+
+    private static final String INSTRUCTOR_EMAIL = "instructor@task-writer.test";
+
+    @Autowired
+    private CourseTaskWriter courseTaskWriter;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long courseId;
+
+    @BeforeEach
+    void setUp() {
+        User instructor = userRepository.save(new User("Paulo", INSTRUCTOR_EMAIL, Role.INSTRUCTOR));
+        courseId = courseRepository.save(new Course("Java", "Curso de Java", instructor)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE c FROM Course c JOIN User u ON u.id = c.instructor_id WHERE u.email = ?", INSTRUCTOR_EMAIL);
+        jdbcTemplate.update("DELETE FROM User WHERE email = ?", INSTRUCTOR_EMAIL);
+    }
+
+    @Test
+    void insertEach__should_increment_the_course_version_once_per_committed_insertion() {
+        long version = currentVersion();
+
+        List<TaskInsertionResult> results = courseTaskWriter.insertEach(courseId,
+                List.of(new TaskInsertionCommand(new NewOpenTextTaskDTO(courseId, "O que aprendemos hoje?", 1), null)));
+
+        assertThat(results).extracting(TaskInsertionResult::status).containsExactly(HttpStatus.OK);
+        assertThat(currentVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void insertAll__should_increment_the_course_version_once_per_committed_batch() {
+        long version = currentVersion();
+
+        TaskInsertionResult result = courseTaskWriter.insertAll(courseId, List.of(
+                new NewOpenTextTaskDTO(courseId, "O que aprendemos hoje?", 1),
+                new NewOpenTextTaskDTO(courseId, "O que vamos aprender amanhã?", 2)), null);
+
+        assertThat(result.status()).isEqualTo(HttpStatus.OK);
+        assertThat(currentVersion()).isEqualTo(version + 1);
+    }
+
+    private long currentVersion() {
+        return courseRepository.findVersionById(courseId).orElseThrow().getVersion();
+    }
+}
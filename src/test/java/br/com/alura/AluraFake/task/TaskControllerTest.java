@@ -4,26 +4,34 @@ import br.com.alura.AluraFake.course.Course;
 import br.com.alura.AluraFake.course.CourseRepository;
 import br.com.alura.AluraFake.task.domain.SingleChoiceTask;
 import br.com.alura.AluraFake.task.domain.MultipleChoiceTask;
+import br.com.alura.AluraFake.task.domain.OrderKeyShift;
+import br.com.alura.AluraFake.task.domain.Task;
 import br.com.alura.AluraFake.user.Role;
 import br.com.alura.AluraFake.user.User;
 import br.com.alura.AluraFake.util.ErrorItemDTO;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 import java.util.Optional;
 
 import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@Import({CourseTaskMailboxes.class, CourseTaskWriter.class})
 public class TaskControllerTest {
 
     @Autowired
@@ -41,6 +49,11 @@ public class TaskControllerTest {
     @MockBean
     private CourseCanAcceptTaskValidator courseCanAcceptTaskValidator;
 
+    @BeforeEach
+    void setUp() {
+        when(courseRepository.incrementVersion(any(), any())).thenReturn(1);
+    }
+
     @Test
     public void newOpenTextTask__should_return_bad_request_when_statement_is_too_short() throws Exception {
         NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "abc", 1);
@@ -82,7 +95,7 @@ public class TaskControllerTest {
     public void newOpenTextTask__should_return_bad_request_when_course_not_found() throws Exception {
         NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(999L, "Valid statement", 1);
 
-        when(courseRepository.findById(999L)).thenReturn(Optional.empty());
+        when(courseRepository.findWithTasksById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/task/new/opentext")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -97,8 +110,9 @@ public class TaskControllerTest {
         NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "Valid statement", 1);
         User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
         Course course = new Course("Java Basics", "Introduction to Java", instructor);
+        ReflectionTestUtils.setField(course, "version", 0L);
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
         when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/task/new/opentext")
@@ -109,6 +123,81 @@ public class TaskControllerTest {
         verify(courseCanAcceptTaskValidator).validate(course, dto.statement(), dto.order());
     }
 
+    @Test
+    public void newOpenTextTask__should_claim_the_next_course_version_and_return_its_etag() throws Exception {
+        NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "Valid statement", 1);
+        Course course = loadedCourse(1L, 3L);
+
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+        when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/task/new/opentext")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""));
+
+        verify(courseRepository).incrementVersion(1L, 3L);
+        verify(taskRepository).save(any(Task.class));
+    }
+
+    @Test
+    public void newOpenTextTask__should_return_precondition_failed_when_if_match_is_outdated() throws Exception {
+        NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "Valid statement", 1);
+        Course course = loadedCourse(1L, 3L);
+
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+
+        mockMvc.perform(post("/task/new/opentext")
+                        .header(HttpHeaders.IF_MATCH, "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.field").value("If-Match"));
+
+        verify(courseRepository, never()).incrementVersion(any(), any());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    public void newOpenTextTask__should_return_conflict_when_the_course_changed_after_it_was_read() throws Exception {
+        NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "Valid statement", 1);
+        Course course = loadedCourse(1L, 3L);
+
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+        when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.empty());
+        when(courseRepository.incrementVersion(1L, 3L)).thenReturn(0);
+
+        mockMvc.perform(post("/task/new/opentext")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.field").value("course"));
+
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    public void newOpenTextTask__should_shift_order_keys_in_bulk_when_course_has_no_room_at_order() throws Exception {
+        NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "Valid statement", 1);
+        Course course = mock(Course.class);
+        when(course.getVersion()).thenReturn(0L);
+
+        when(course.getId()).thenReturn(1L);
+        when(course.getInstructor()).thenReturn(new User("John", "john@alura.com", Role.INSTRUCTOR));
+        when(course.reserveOrderKeyRoom(dto.order())).thenReturn(Optional.of(new OrderKeyShift(Task.ORDER_KEY_SPACING, 2 * Task.ORDER_KEY_SPACING)));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+        when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/task/new/opentext")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        verify(taskRepository).shiftOrderKeys(1L, Task.ORDER_KEY_SPACING, 2 * Task.ORDER_KEY_SPACING);
+    }
+
     @Test
     public void newOpenTextTask__should_return_bad_request_when_course_can_not_accept_task() throws Exception {
         NewOpenTextTaskDTO dto = new NewOpenTextTaskDTO(1L, "Valid statement", 1);
@@ -117,7 +206,7 @@ public class TaskControllerTest {
 
         ErrorItemDTO validationError = new ErrorItemDTO("courseId", "Course can't have new tasks when not in BUILDING status");
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
         when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.of(validationError));
 
         mockMvc.perform(post("/task/new/opentext")
@@ -140,8 +229,9 @@ public class TaskControllerTest {
         NewSingleChoiceTaskDTO dto = new NewSingleChoiceTaskDTO(1L, "What is Java?", 1, options);
         User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
         Course course = new Course("Java Basics", "Introduction to Java", instructor);
+        ReflectionTestUtils.setField(course, "version", 0L);
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
         when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/task/new/singlechoice")
@@ -195,7 +285,7 @@ public class TaskControllerTest {
         );
         NewSingleChoiceTaskDTO dto = new NewSingleChoiceTaskDTO(999L, "What is Java?", 1, options);
 
-        when(courseRepository.findById(999L)).thenReturn(Optional.empty());
+        when(courseRepository.findWithTasksById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/task/new/singlechoice")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -252,7 +342,7 @@ public class TaskControllerTest {
 
         ErrorItemDTO validationError = new ErrorItemDTO("statement", "Course can't have tasks with the same statement");
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
         when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.of(validationError));
 
         mockMvc.perform(post("/task/new/singlechoice")
@@ -277,8 +367,9 @@ public class TaskControllerTest {
 
         User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
         Course course = new Course("Java Basics", "Introduction to Java", instructor);
+        ReflectionTestUtils.setField(course, "version", 0L);
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
         when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/task/new/multiplechoice")
@@ -340,7 +431,7 @@ public class TaskControllerTest {
         );
         NewMultipleChoiceTaskDTO dto = new NewMultipleChoiceTaskDTO(999L, "What are Java characteristics?", 1, options);
 
-        when(courseRepository.findById(999L)).thenReturn(Optional.empty());
+        when(courseRepository.findWithTasksById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/task/new/multiplechoice")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -363,7 +454,7 @@ public class TaskControllerTest {
 
         ErrorItemDTO validationError = new ErrorItemDTO("order", "Order placement is invalid");
 
-        when(courseRepository.findById(1L)).thenReturn(Optional.of(course));
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
         when(courseCanAcceptTaskValidator.validate(course, dto.statement(), dto.order())).thenReturn(Optional.of(validationError));
 
         mockMvc.perform(post("/task/new/multiplechoice")
@@ -376,4 +467,104 @@ public class TaskControllerTest {
         verify(courseCanAcceptTaskValidator).validate(course, dto.statement(), dto.order());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void newTaskBatch__should_return_not_found_when_course_does_not_exist() throws Exception {
+        when(courseRepository.findWithTasksById(999L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/course/999/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"tasks": [{"type": "OPEN_TEXT", "courseId": 999, "statement": "What is Java?", "order": 1}]}
+                                """))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Course not found"));
+    }
+
+    @Test
+    public void newTaskBatch__should_create_all_tasks_of_a_mixed_batch() throws Exception {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        Course course = new Course("Java Basics", "Introduction to Java", instructor);
+        ReflectionTestUtils.setField(course, "version", 0L);
+        ReflectionTestUtils.setField(course, "id", 1L);
+
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+        when(courseCanAcceptTaskValidator.validate(eq(course), anyString(), anyInt())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/course/1/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"tasks": [
+                                  {"type": "OPEN_TEXT", "courseId": 1, "statement": "What is Java?", "order": 1},
+                                  {"type": "SINGLE_CHOICE", "courseId": 1, "statement": "Which one is a JVM language?", "order": 2, "options": [
+                                    {"option": "Kotlin", "isCorrect": true},
+                                    {"option": "Python", "isCorrect": false}
+                                  ]},
+                                  {"type": "MULTIPLE_CHOICE", "courseId": 1, "statement": "Which ones are JVM languages?", "order": 1, "options": [
+                                    {"option": "Kotlin", "isCorrect": true},
+                                    {"option": "Scala", "isCorrect": true},
+                                    {"option": "Python", "isCorrect": false}
+                                  ]}
+                                ]}
+                                """))
+                .andExpect(status().isOk());
+
+        verify(taskRepository, times(3)).save(any(Task.class));
+        verify(courseRepository, times(1)).incrementVersion(1L, 0L);
+        assertEquals(List.of("Which ones are JVM languages?", "What is Java?", "Which one is a JVM language?"),
+                course.getTasks().stream().map(Task::getStatement).toList());
+    }
+
+    @Test
+    public void newTaskBatch__should_report_errors_of_every_invalid_item_and_persist_nothing() throws Exception {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        Course course = new Course("Java Basics", "Introduction to Java", instructor);
+        ReflectionTestUtils.setField(course, "id", 1L);
+
+        when(courseRepository.findWithTasksById(1L)).thenReturn(Optional.of(course));
+        when(courseCanAcceptTaskValidator.validate(eq(course), anyString(), anyInt())).thenReturn(Optional.empty());
+        when(courseCanAcceptTaskValidator.validate(course, "What is Kotlin?", 5))
+                .thenReturn(Optional.of(new ErrorItemDTO("order", "Order placement is invalid")));
+
+        mockMvc.perform(post("/course/1/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"tasks": [
+                                  {"type": "OPEN_TEXT", "courseId": 2, "statement": "What is Java?", "order": 1},
+                                  {"type": "OPEN_TEXT", "courseId": 1, "statement": "What is Scala?", "order": 1},
+                                  {"type": "SINGLE_CHOICE", "courseId": 1, "statement": "Which one is a JVM language?", "order": 2, "options": [
+                                    {"option": "Kotlin", "isCorrect": true},
+                                    {"option": "Scala", "isCorrect": true}
+                                  ]},
+                                  {"type": "OPEN_TEXT", "courseId": 1, "statement": "What is Kotlin?", "order": 5}
+                                ]}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].field").value("tasks[0].courseId"))
+                .andExpect(jsonPath("$[1].field").value("tasks[2].options"))
+                .andExpect(jsonPath("$[1].message").value(format("Task must have %d correct option.", SingleChoiceTask.REQUIRED_CORRECT_OPTIONS_SIZE)))
+                .andExpect(jsonPath("$[2].field").value("tasks[3].order"));
+
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    public void newTaskBatch__should_return_bad_request_when_item_is_invalid() throws Exception {
+        mockMvc.perform(post("/course/1/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"tasks": [{"type": "OPEN_TEXT", "courseId": 1, "statement": "abc", "order": 1}]}
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].field").value("tasks[0].statement"))
+                .andExpect(jsonPath("$[0].message").value("size must be between 4 and 255"));
+    }
+
+    private static Course loadedCourse(Long id, Long version) {
+        User instructor = new User("John", "john@alura.com", Role.INSTRUCTOR);
+        Course course = new Course("Java Basics", "Introduction to Java", instructor);
+        ReflectionTestUtils.setField(course, "id", id);
+        ReflectionTestUtils.setField(course, "version", version);
+        return course;
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.alura.AluraFake.task;
+
+import br.com.alura.AluraFake.course.Course;
+import br.com.alura.AluraFake.course.CourseRepository;
+import br.com.alura.AluraFake.user.Role;
+import br.com.alura.AluraFake.user.User;
+import br.com.alura.AluraFake.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several clients adding tasks to the same course at once, over HTTP and against the database.
+ * Every task is inserted at the head of the course, the most contended position: each insertion
+ * shifts all the others, so a lost update shows up as repeated order keys. Insertions that arrive
+ * together share a transaction and a course version, so the course ends up with fewer versions than tasks.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.profiles.active=test",
+        "spring.jpa.show-sql=false",
+        "alurafake.conflict-retry.max-attempts=100"
+})
+class TaskInsertionConcurrencyTest {
+
+    private static final String INSTRUCTOR_EMAIL = "instructor@concurrency.test";
+    private static final int CLIENTS = 16;
+    private static final int TASKS_PER_CLIENT = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private Long courseId;
+
+    @BeforeEach
+    void setUp() {
+        User instructor = userRepository.save(new User("Paulo", INSTRUCTOR_EMAIL, Role.INSTRUCTOR));
+        courseId = courseRepository.save(new Course("Java", "Curso de Java", instructor)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE c FROM Course c JOIN User u ON u.id = c.instructor_id WHERE u.email = ?", INSTRUCTOR_EMAIL);
+        jdbcTemplate.update("DELETE FROM User WHERE email = ?", INSTRUCTOR_EMAIL);
+    }
+
+    @Test
+    void newOpenTextTask__should_keep_every_concurrent_insertion() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<List<Integer>>> clients = new ArrayList<>();
+        for (int clientIndex = 0; clientIndex < CLIENTS; clientIndex++) {
+            int clientNumber = clientIndex;
+            clients.add(executor.submit(() -> {
+                start.await();
+                List<Integer> statuses = new ArrayList<>();
+                for (int taskIndex = 0; taskIndex < TASKS_PER_CLIENT; taskIndex++) {
+                    statuses.add(addTaskAtHead("Client " + clientNumber + " task " + taskIndex, taskIndex % 2 == 1));
+                }
+                return statuses;
+            }));
+        }
+
+        start.countDown();
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<List<Integer>> result : clients) {
+            statuses.addAll(result.get());
+        }
+        executor.shutdown();
+
+        int expectedTasks = CLIENTS * TASKS_PER_CLIENT;
+
+        assertThat(statuses).hasSize(expectedTasks).containsOnly(200);
+
+        List<Long> orderKeys = jdbcTemplate.queryForList("SELECT task_order FROM Task WHERE course_id = ? ORDER BY task_order", Long.class, courseId);
+        assertThat(orderKeys).hasSize(expectedTasks).doesNotHaveDuplicates();
+        long version = courseRepository.findVersionById(courseId).orElseThrow().getVersion();
+        assertThat(version).isBetween(1L, (long) expectedTasks);
+        Integer taskCount = jdbcTemplate.queryForObject("SELECT task_count FROM Course WHERE id = ?", Integer.class, courseId);
+        assertThat(taskCount).isEqualTo(expectedTasks);
+    }
+
+    /**
+     * Alternates open text and single choice tasks, so batches mix tasks with and without options.
+     */
+    private int addTaskAtHead(String statement, boolean withOptions) throws Exception {
+        String path = withOptions ? "/task/new/singlechoice" : "/task/new/opentext";
+        String options = withOptions
+                ? ", \"options\": [{\"option\": \"Correct\", \"isCorrect\": true}, {\"option\": \"Wrong\", \"isCorrect\": false}]"
+                : "";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"courseId\": " + courseId + ", \"statement\": \"" + statement + "\", \"order\": 1" + options + "}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -6,12 +6,15 @@ import br.com.alura.AluraFake.task.domain.*;
 import br.com.alura.AluraFake.user.Role;
 import br.com.alura.AluraFake.user.User;
 import br.com.alura.AluraFake.user.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -112,6 +115,76 @@ public class TaskRepositoryTest {
         assertOptionsArePersisted(foundMultipleChoiceTask.getOptions(), options);
     }
 
+    @Test
+    public void shiftOrderKeys__should_keep_statement_count_constant_when_inserting_at_head_of_large_course() {
+        User instructor = new User("Ann Lee", "ann.shift@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
+
+        Course course = new Course("Large Course", "Course with many tasks", instructor);
+        for (int order = 1; order <= 500; order++) {
+            new OpenTextTask(course, "Task number " + order, order);
+        }
+        courseRepository.save(course);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Course loadedCourse = courseRepository.findById(course.getId()).orElseThrow();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        for (int insertion = 1; insertion <= 20; insertion++) {
+            statistics.clear();
+
+            loadedCourse.reserveOrderKeyRoom(1)
+                    .ifPresent(shift -> taskRepository.shiftOrderKeys(loadedCourse.getId(), shift.fromKey(), shift.offset()));
+            taskRepository.save(new OpenTextTask(loadedCourse, "Head task " + insertion, 1));
+            entityManager.flush();
+
+            assertThat(statistics.getEntityUpdateCount()).isZero();
+            assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        }
+
+        entityManager.clear();
+
+        List<Task> tasks = List.copyOf(courseRepository.findById(course.getId()).orElseThrow().getTasks());
+        assertThat(tasks).hasSize(520);
+        assertThat(tasks.getFirst().getStatement()).isEqualTo("Head task 20");
+        assertThat(tasks.get(20).getStatement()).isEqualTo("Task number 1");
+        assertThat(tasks).extracting(Task::getOrderKey).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void saveAll__should_insert_tasks_and_options_in_jdbc_batches() {
+        User instructor = new User("Ann Lee", "ann.batch@alura.com", Role.INSTRUCTOR);
+        userRepository.save(instructor);
+
+        Course course = new Course("Imported Course", "Course created in bulk", instructor);
+        courseRepository.save(course);
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<Task> tasks = new ArrayList<>();
+        for (int order = 1; order <= 100; order++) {
+            tasks.add(new SingleChoiceTask(course, "Imported task " + order, order, List.of(
+                    new TaskOption("Correct option", true),
+                    new TaskOption("Wrong option", false),
+                    new TaskOption("Another wrong option", false)
+            )));
+        }
+        taskRepository.saveAll(tasks);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(100);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
     private void assertOptionsArePersisted(List<TaskOption> actualOptions, List<TaskOption> expectedOptions) {
         assertThat(actualOptions).hasSize(expectedOptions.size());
         assertThat(actualOptions).containsExactlyInAnyOrderElementsOf(expectedOptions);
@@ -6,10 +6,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,7 +41,7 @@ class OrderedTasksTest {
 
     @Test
     void add__should_add_task_when_order_is_not_in_use() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = new OrderedTasks(tasks);
 
         OpenTextTask task = new OpenTextTask(mockCourse, "New task statement", 1);
@@ -60,7 +63,7 @@ class OrderedTasksTest {
         OpenTextTask existingTask3 = new OpenTextTask(mockCourse, "Second task", 3);
         OpenTextTask taskWithConflictingOrder = new OpenTextTask(mockCourse, "New task at position 2", 2);
 
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = new OrderedTasks(tasks) {{
             add(existingTask1);
             add(existingTask2);
@@ -83,9 +86,146 @@ class OrderedTasksTest {
     }
 
 
+    @Test
+    void add__should_keep_shifted_tasks_findable_in_hash_based_collections() {
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>());
+        OpenTextTask shifted = new OpenTextTask(mockCourse, "Shifted task", 1);
+        organizer.add(shifted);
+        Set<Task> tasks = new HashSet<>(Set.of(shifted));
+
+        organizer.add(new OpenTextTask(mockCourse, "New first task", 1));
+
+        assertEquals(2, shifted.getOrder());
+        assertTrue(tasks.contains(shifted));
+    }
+
+    @Test
+    void add__should_place_task_between_neighbours_without_changing_their_order_keys() {
+        OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
+        OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>()) {{
+            add(task1);
+            add(task2);
+        }};
+        Long task1Key = task1.getOrderKey();
+        Long task2Key = task2.getOrderKey();
+
+        OpenTextTask newTask = new OpenTextTask(mockCourse, "New task at 2", 2);
+        organizer.add(newTask);
+
+        assertEquals(task1Key, task1.getOrderKey());
+        assertEquals(task2Key, task2.getOrderKey());
+        assertTrue(newTask.getOrderKey() > task1Key && newTask.getOrderKey() < task2Key);
+        assertEquals(3, task2.getOrder());
+    }
+
+    @Test
+    void add__should_shift_order_keys_of_transient_tasks_when_neighbours_have_no_room_left() {
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>());
+        OpenTextTask last = new OpenTextTask(mockCourse, "Last task", 1);
+        organizer.add(last);
+
+        for (int index = 0; index < 40; index++) {
+            organizer.add(new OpenTextTask(mockCourse, "Head task " + index, 1));
+        }
+
+        List<Task> orderedTasks = List.copyOf(organizer.getTasks());
+        assertEquals(41, orderedTasks.size());
+        assertEquals(last, orderedTasks.getLast());
+        assertEquals(41, last.getOrder());
+        assertEquals("Head task 39", orderedTasks.getFirst().getStatement());
+        assertTrue(organizer.hasContinuousTaskSequence());
+    }
+
+    @Test
+    void add__should_reject_shifting_persisted_tasks_without_reserving_room() {
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>());
+        OpenTextTask persistedTask = new OpenTextTask(mockCourse, "Persisted task", 1);
+        organizer.add(persistedTask);
+        ReflectionTestUtils.setField(persistedTask, "id", 1L);
+        persistedTask.assignOrderKey(1L);
+
+        OpenTextTask newTask = new OpenTextTask(mockCourse, "New first task", 1);
+
+        assertThrows(IllegalStateException.class, () -> organizer.add(newTask));
+    }
+
+    @Test
+    void reserveRoomAt__should_shift_keys_from_insertion_point_when_neighbours_have_no_room_left() {
+        OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
+        OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>()) {{
+            add(task1);
+            add(task2);
+        }};
+        task1.assignOrderKey(10L);
+        task2.assignOrderKey(11L);
+
+        Optional<OrderKeyShift> shift = organizer.reserveRoomAt(2);
+
+        assertEquals(Optional.of(new OrderKeyShift(11L, Task.ORDER_KEY_SPACING)), shift);
+        assertEquals(10L, task1.getOrderKey());
+        assertEquals(11L + Task.ORDER_KEY_SPACING, task2.getOrderKey());
+    }
+
+    @Test
+    void reserveRoomAt__should_open_room_for_as_many_inserts_as_tasks_it_shifts() {
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>());
+        for (int order = 1; order <= 100; order++) {
+            organizer.add(new OpenTextTask(mockCourse, "Task " + order, order));
+        }
+
+        int insertions = 1000;
+        long shiftedTasks = 0;
+        for (int index = 0; index < insertions; index++) {
+            if (organizer.reserveRoomAt(1).isPresent()) {
+                shiftedTasks += organizer.getTasks().size();
+            }
+            organizer.add(new OpenTextTask(mockCourse, "Head task " + index, 1));
+        }
+
+        assertTrue(shiftedTasks <= 2L * (insertions + 100), "Shifted " + shiftedTasks + " tasks");
+        assertEquals(1100, organizer.getTasks().size());
+        assertEquals("Head task 999", organizer.getTasks().getFirst().getStatement());
+        List<Long> keys = organizer.getTasks().stream().map(Task::getOrderKey).toList();
+        assertEquals(keys.stream().sorted().distinct().toList(), keys);
+    }
+
+    @Test
+    void reserveRoomAt__should_not_shift_keys_when_there_is_room_or_task_is_appended() {
+        OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
+        OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>()) {{
+            add(task1);
+            add(task2);
+        }};
+
+        assertTrue(organizer.reserveRoomAt(2).isEmpty());
+        assertTrue(organizer.reserveRoomAt(3).isEmpty());
+        assertEquals(2 * Task.ORDER_KEY_SPACING, task2.getOrderKey());
+    }
+
+    @Test
+    void constructor__should_derive_dense_orders_from_order_keys() {
+        OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
+        OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
+        task1.assignOrderKey(10L);
+        task1.assignOrder(null);
+        task2.assignOrderKey(700L);
+        task2.assignOrder(null);
+
+        List<Task> tasks = new ArrayList<>(List.of(task2, task1));
+        OrderedTasks organizer = new OrderedTasks(tasks);
+
+        assertEquals(1, task1.getOrder());
+        assertEquals(2, task2.getOrder());
+        assertTrue(organizer.hasContinuousTaskSequence());
+    }
+
+
     @Test
     void add__should_reject_task_with_large_gaps_in_order_sequence() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
 
         OrderedTasks organizer = new OrderedTasks(tasks) {{
             add(new OpenTextTask(mockCourse, "Task 1", 1));
@@ -102,7 +242,7 @@ class OrderedTasksTest {
         OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
         OpenTextTask newTask = new OpenTextTask(mockCourse, "Task 3", 3);
 
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = new OrderedTasks(tasks) {{
             add(task1);
             add(task2);
@@ -118,7 +258,7 @@ class OrderedTasksTest {
 
     @Test
     void hasValidOrderGaps__should_return_true_for_task_in_empty_organizer() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = new OrderedTasks(tasks);
 
         OpenTextTask task = new OpenTextTask(mockCourse, "First task", 1);
@@ -128,7 +268,7 @@ class OrderedTasksTest {
 
     @Test
     void hasValidOrderGaps__should_return_false_when_task_creates_invalid_gap_in_sequence() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = new OrderedTasks(tasks);
 
         OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
@@ -141,7 +281,7 @@ class OrderedTasksTest {
 
     @Test
     void hasValidOrderGaps__should_return_false_when_task_creates_invalid_gap_with_lower_neighbor() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = spy(new OrderedTasks(tasks));
 
         OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
@@ -157,7 +297,7 @@ class OrderedTasksTest {
 
     @Test
     void hasValidOrderGaps__should_return_true_when_same_order_as_existing_task() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = spy(new OrderedTasks(tasks));
 
         OpenTextTask existingTask = new OpenTextTask(mockCourse, "Existing task", 2);
@@ -170,9 +310,27 @@ class OrderedTasksTest {
         assertTrue(organizer.fitsInSequence(newTask));
     }
 
+    @Test
+    void hasTaskWithStatement__should_find_tasks_received_on_construction() {
+        OpenTextTask task = new OpenTextTask(mockCourse, "Existing task", 1);
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>(List.of(task)));
+
+        assertTrue(organizer.hasTaskWithStatement("Existing task"));
+        assertFalse(organizer.hasTaskWithStatement("Missing task"));
+    }
+
+    @Test
+    void hasTaskWithStatement__should_find_added_tasks() {
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>());
+        organizer.add(new OpenTextTask(mockCourse, "Added task", 1));
+
+        assertTrue(organizer.hasTaskWithStatement("Added task"));
+        assertFalse(organizer.hasTaskWithStatement("added task"));
+    }
+
     @Test
     void hasContinuousTaskSequence__should_return_true_for_empty_task_list() {
-        TreeSet<Task> tasks = new TreeSet<>();
+        List<Task> tasks = new ArrayList<>();
         OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertTrue(organizer.hasContinuousTaskSequence());
@@ -180,30 +338,29 @@ class OrderedTasksTest {
 
     @Test
     void hasContinuousTaskSequence__should_return_true_for_single_task_starting_at_one() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task = new OpenTextTask(mockCourse, "Task 1", 1);
         tasks.add(task);
+        OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertTrue(organizer.hasContinuousTaskSequence());
     }
 
     @Test
     void hasContinuousTaskSequence__should_return_false_for_single_task_not_starting_at_one() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task = new OpenTextTask(mockCourse, "Task 2", 2);
         tasks.add(task);
+        OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertFalse(organizer.hasContinuousTaskSequence());
     }
 
     @Test
     void hasContinuousTaskSequence__should_return_true_for_continuous_sequence_starting_at_one() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
         OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
@@ -212,14 +369,14 @@ class OrderedTasksTest {
         tasks.add(task1);
         tasks.add(task2);
         tasks.add(task3);
+        OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertTrue(organizer.hasContinuousTaskSequence());
     }
 
     @Test
     void hasContinuousTaskSequence__should_return_false_for_sequence_with_gaps() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
         OpenTextTask task3 = new OpenTextTask(mockCourse, "Task 3", 3);
@@ -228,14 +385,14 @@ class OrderedTasksTest {
         tasks.add(task1);
         tasks.add(task3);
         tasks.add(task4);
+        OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertFalse(organizer.hasContinuousTaskSequence());
     }
 
     @Test
     void hasContinuousTaskSequence__should_return_false_when_sequence_does_not_start_at_one() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task2 = new OpenTextTask(mockCourse, "Task 2", 2);
         OpenTextTask task3 = new OpenTextTask(mockCourse, "Task 3", 3);
@@ -244,14 +401,14 @@ class OrderedTasksTest {
         tasks.add(task2);
         tasks.add(task3);
         tasks.add(task4);
+        OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertFalse(organizer.hasContinuousTaskSequence());
     }
 
     @Test
     void hasContinuousTaskSequence__should_return_true_for_unordered_continuous_sequence() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task3 = new OpenTextTask(mockCourse, "Task 3", 3);
         OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
@@ -260,14 +417,14 @@ class OrderedTasksTest {
         tasks.add(task3);
         tasks.add(task1);
         tasks.add(task2);
+        OrderedTasks organizer = new OrderedTasks(tasks);
 
         assertTrue(organizer.hasContinuousTaskSequence());
     }
 
     @Test
     void hasContinuousTaskSequence__should_return_false_for_multiple_gaps_in_sequence() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
+        List<Task> tasks = new ArrayList<>();
 
         OpenTextTask task1 = new OpenTextTask(mockCourse, "Task 1", 1);
         OpenTextTask task4 = new OpenTextTask(mockCourse, "Task 4", 4);
@@ -276,91 +433,18 @@ class OrderedTasksTest {
         tasks.add(task1);
         tasks.add(task4);
         tasks.add(task7);
-
-        assertFalse(organizer.hasContinuousTaskSequence());
-    }
-
-    @Test
-    void hasAllTaskTypes__should_return_true_when_empty_task_list() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
-
-        assertFalse(organizer.hasAllTaskTypes());
-    }
-
-    @Test
-    void hasAllTaskTypes__should_return_false_when_missing_task_types() {
-        TreeSet<Task> tasks = new TreeSet<>();
         OrderedTasks organizer = new OrderedTasks(tasks);
 
-        OpenTextTask openTextTask = new OpenTextTask(mockCourse, "Open text task", 1);
-
-        List<TaskOption> singleChoiceOptions = List.of(
-                new TaskOption("Option A", true),
-                new TaskOption("Option B", false)
-        );
-        SingleChoiceTask singleChoiceTask = new SingleChoiceTask(mockCourse, "Single choice task", 2, singleChoiceOptions);
-
-        tasks.add(openTextTask);
-        tasks.add(singleChoiceTask);
-
-        assertFalse(organizer.hasAllTaskTypes());
-    }
-
-    @Test
-    void hasAllTaskTypes__should_return_true_when_all_task_types_present() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
-
-        OpenTextTask openTextTask = new OpenTextTask(mockCourse, "Open text task", 1);
-
-        List<TaskOption> singleChoiceOptions = List.of(
-                new TaskOption("Option A", true),
-                new TaskOption("Option B", false)
-        );
-        SingleChoiceTask singleChoiceTask = new SingleChoiceTask(mockCourse, "Single choice task", 2, singleChoiceOptions);
-
-        List<TaskOption> multipleChoiceOptions = List.of(
-                new TaskOption("Option A", true),
-                new TaskOption("Option B", true),
-                new TaskOption("Option C", false)
-        );
-        MultipleChoiceTask multipleChoiceTask = new MultipleChoiceTask(mockCourse, "Multiple choice task", 3, multipleChoiceOptions);
-
-        tasks.add(openTextTask);
-        tasks.add(singleChoiceTask);
-        tasks.add(multipleChoiceTask);
-
-        assertTrue(organizer.hasAllTaskTypes());
+        assertFalse(organizer.hasContinuousTaskSequence());
     }
 
     @Test
-    void hasAllTaskTypes__should_return_true_when_multiple_tasks_of_each_type() {
-        TreeSet<Task> tasks = new TreeSet<>();
-        OrderedTasks organizer = new OrderedTasks(tasks);
-
-        OpenTextTask openTextTask1 = new OpenTextTask(mockCourse, "Open text task 1", 1);
-        OpenTextTask openTextTask2 = new OpenTextTask(mockCourse, "Open text task 2", 2);
+    void getTasks__should_not_allow_changes_outside_organizer() {
+        OrderedTasks organizer = new OrderedTasks(new ArrayList<>());
 
-        List<TaskOption> singleChoiceOptions = List.of(
-                new TaskOption("Option A", true),
-                new TaskOption("Option B", false)
-        );
-        SingleChoiceTask singleChoiceTask = new SingleChoiceTask(mockCourse, "Single choice task", 3, singleChoiceOptions);
-
-        List<TaskOption> multipleChoiceOptions = List.of(
-                new TaskOption("Option A", true),
-                new TaskOption("Option B", true),
-                new TaskOption("Option C", false)
-        );
-        MultipleChoiceTask multipleChoiceTask = new MultipleChoiceTask(mockCourse, "Multiple choice task", 4, multipleChoiceOptions);
-
-        tasks.add(openTextTask1);
-        tasks.add(openTextTask2);
-        tasks.add(singleChoiceTask);
-        tasks.add(multipleChoiceTask);
+        OpenTextTask task = new OpenTextTask(mockCourse, "Task 1", 1);
 
-        assertTrue(organizer.hasAllTaskTypes());
+        assertThrows(UnsupportedOperationException.class, () -> organizer.getTasks().add(task));
     }
 
-}
\ No newline at end of file
+}
@@ -1,15 +1,24 @@
 package br.com.alura.AluraFake.user;
 
+import br.com.alura.AluraFake.infra.JsonStreamingQuery;
+import br.com.alura.AluraFake.util.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Arrays;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,6 +32,9 @@ class UserControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private JsonStreamingQuery jsonStreamingQuery;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -90,15 +102,64 @@ class UserControllerTest {
 
     @Test
     void listAllUsers__should_list_all_users() throws Exception {
-        User user1 = new User("User 1", "user1@test.com",Role.STUDENT);
-        User user2 = new User("User 2", "user2@test.com",Role.STUDENT);
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        UserProjection user1 = createMockProjection(1L, "User 1", "user1@test.com", Role.STUDENT);
+        UserProjection user2 = createMockProjection(2L, "User 2", "user2@test.com", Role.STUDENT);
+        when(userRepository.findPage(0L, null, Limit.of(51))).thenReturn(Arrays.asList(user1, user2));
 
         mockMvc.perform(get("/user/all")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].name").value("User 1"))
                 .andExpect(jsonPath("$[1].name").value("User 2"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void listAllUsers__should_return_next_cursor_when_there_are_more_users() throws Exception {
+        UserProjection user1 = createMockProjection(11L, "User 1", "user1@test.com", Role.INSTRUCTOR);
+        UserProjection user2 = createMockProjection(12L, "User 2", "user2@test.com", Role.INSTRUCTOR);
+        when(userRepository.findPage(10L, Role.INSTRUCTOR, Limit.of(2))).thenReturn(Arrays.asList(user1, user2));
+
+        mockMvc.perform(get("/user/all")
+                        .param("cursor", KeysetCursor.encode(10L))
+                        .param("size", "1")
+                        .param("role", "INSTRUCTOR"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER, KeysetCursor.encode(11L)))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("User 1"));
+    }
+
+    private UserProjection createMockProjection(Long id, String name, String email, Role role) {
+        UserProjection projection = mock(UserProjection.class);
+        doReturn(id).when(projection).getId();
+        doReturn(name).when(projection).getName();
+        doReturn(email).when(projection).getEmail();
+        doReturn(role).when(projection).getRole();
+        return projection;
+    }
+
+    @Test
+    void listAllUsers__should_return_bad_request_when_cursor_is_invalid() throws Exception {
+        mockMvc.perform(get("/user/all")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void listAllUsers__should_stream_every_user() throws Exception {
+        StreamingResponseBody body = outputStream -> outputStream.write("[{\"id\":1}]".getBytes());
+        when(jsonStreamingQuery.streamArray(anyString(), any())).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/user/all/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+}
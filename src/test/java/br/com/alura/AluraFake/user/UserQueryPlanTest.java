@@ -0,0 +1,68 @@
+package br.com.alura.AluraFake.user;
+
+import br.com.alura.AluraFake.shared.QueryPlans;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.com.alura.AluraFake.shared.QueryPlans.assertNoFullTableScan;
+import static br.com.alura.AluraFake.shared.QueryPlans.assertUsesIndex;
+import static br.com.alura.AluraFake.shared.QueryPlans.lastStatement;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code EXPLAIN} on the statements Hibernate generates for the user queries,
+ * against enough users that the optimizer prefers an index whenever one matches.
+ */
+@DataJpaTest(properties = QueryPlans.STATEMENT_INSPECTOR)
+@ActiveProfiles("test")
+class UserQueryPlanTest {
+
+    private static final int USERS = 200;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int index = 0; index < USERS; index++) {
+            Role role = index % 10 == 0 ? Role.INSTRUCTOR : Role.STUDENT;
+            users.add(new User("User " + index, "user" + index + "@plans.test", role));
+        }
+        userRepository.saveAll(users);
+        entityManager.flush();
+        entityManager.clear();
+        QueryPlans.clearStatements();
+    }
+
+    @Test
+    void findPage__should_read_only_the_listed_columns() {
+        userRepository.findPage(0L, null, Limit.of(10));
+
+        assertThat(lastStatement()).doesNotContain("password");
+    }
+
+    @Test
+    void findPage__should_use_an_index_with_and_without_role() {
+        userRepository.findPage(0L, null, Limit.of(10));
+        assertNoFullTableScan(jdbcTemplate, lastStatement(), 0L, null, null, 10);
+
+        userRepository.findPage(0L, Role.INSTRUCTOR, Limit.of(10));
+        assertUsesIndex(jdbcTemplate, "IDX_User_role_id", lastStatement(), 0L, "INSTRUCTOR", "INSTRUCTOR", 10);
+    }
+}
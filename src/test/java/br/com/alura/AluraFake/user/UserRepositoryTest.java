@@ -2,12 +2,14 @@ package br.com.alura.AluraFake.user;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -38,4 +40,22 @@ class UserRepositoryTest {
         assertThat(userRepository.existsByEmail("sergio@alura.com.br")).isFalse();
     }
 
-}
\ No newline at end of file
+    @Test
+    void findPage__should_walk_users_of_a_role_in_id_order() {
+        User paulo = userRepository.save(new User("Paulo", "paulo@alura.com.br", Role.INSTRUCTOR));
+        userRepository.save(new User("Caio", "caio@alura.com.br", Role.STUDENT));
+        User ana = userRepository.save(new User("Ana", "ana@alura.com.br", Role.INSTRUCTOR));
+
+        List<UserProjection> firstPage = userRepository.findPage(0L, Role.INSTRUCTOR, Limit.of(1));
+        List<UserProjection> secondPage = userRepository.findPage(firstPage.getLast().getId(), Role.INSTRUCTOR, Limit.of(1));
+        List<UserProjection> lastPage = userRepository.findPage(secondPage.getLast().getId(), Role.INSTRUCTOR, Limit.of(1));
+
+        assertThat(firstPage).extracting(UserProjection::getId).containsExactly(paulo.getId());
+        assertThat(firstPage.getFirst().getName()).isEqualTo("Paulo");
+        assertThat(firstPage.getFirst().getEmail()).isEqualTo("paulo@alura.com.br");
+        assertThat(firstPage.getFirst().getRole()).isEqualTo(Role.INSTRUCTOR);
+        assertThat(secondPage).extracting(UserProjection::getId).containsExactly(ana.getId());
+        assertThat(lastPage).isEmpty();
+    }
+
+}
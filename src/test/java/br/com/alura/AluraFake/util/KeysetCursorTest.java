@@ -0,0 +1,57 @@
+package br.com.alura.AluraFake.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode__should_return_the_encoded_id() {
+        assertEquals(42L, KeysetCursor.decode(KeysetCursor.encode(42L)));
+    }
+
+    @Test
+    void decode__should_start_from_the_beginning_when_cursor_is_missing() {
+        assertEquals(0L, KeysetCursor.decode(null));
+        assertEquals(0L, KeysetCursor.decode(""));
+    }
+
+    @Test
+    void decode__should_reject_tokens_not_created_by_encode() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("42"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not base64!"));
+    }
+
+    @Test
+    void limitFor__should_ask_for_one_row_more_than_the_page_size() {
+        assertEquals(Limit.of(51), KeysetCursor.limitFor(50));
+    }
+
+    @Test
+    void limitFor__should_reject_sizes_out_of_bounds() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.limitFor(0));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.limitFor(KeysetCursor.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void page__should_trim_the_extra_row_and_point_the_cursor_at_the_last_item() {
+        ResponseEntity<List<Long>> response = KeysetCursor.page(List.of(1L, 2L, 3L), 2, id -> id);
+
+        assertEquals(List.of(1L, 2L), response.getBody());
+        assertEquals(KeysetCursor.encode(2L), response.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void page__should_not_return_a_cursor_on_the_last_page() {
+        ResponseEntity<List<Long>> response = KeysetCursor.page(List.of(1L, 2L), 2, id -> id);
+
+        assertEquals(List.of(1L, 2L), response.getBody());
+        assertFalse(response.getHeaders().containsKey(KeysetCursor.NEXT_CURSOR_HEADER));
+    }
+
+}